@@ -0,0 +1,32 @@
+package no.cantara.config.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks with the gc profiler always enabled so that every report includes allocation rate. Accepts the
+ * same command-line arguments as the standard JMH main, e.g. {@code java -jar benchmarks.jar ReadPath -p keyCount=100}.
+ * <p>
+ * Also appends a scratch directory to the classpath that forked benchmark JVMs inherit, so that benchmarks can
+ * generate classpath properties files, see {@link SyntheticSources#classpathDirectory()}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Path classpathDirectory = Files.createDirectories(SyntheticSources.defaultClasspathDirectory());
+        System.setProperty("java.class.path", System.getProperty("java.class.path") + File.pathSeparator + classpathDirectory);
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
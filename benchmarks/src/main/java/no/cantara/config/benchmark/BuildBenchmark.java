@@ -0,0 +1,171 @@
+package no.cantara.config.benchmark;
+
+import no.cantara.config.ApplicationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of building instances from generated sources. The {@code build*} benchmarks measure complete builder
+ * chains, the {@code step*} benchmarks measure a single builder step on a builder that has been prepared with
+ * {@code storeCount} map stores outside of the measurement. Validation is measured as the difference between
+ * {@link #stepBuild} and {@link #stepBuildWithValidation}.
+ * <p>
+ * Requires JDK 9 or later, the forked JVM opens {@code java.base} in order to install a fake environment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xms2g", "-Xmx2g",
+        "--add-opens", "java.base/java.util=ALL-UNNAMED"
+})
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int keyCount;
+
+    @Param({"1", "8"})
+    int storeCount;
+
+    @Param({"100", "10000"})
+    int overrideCount;
+
+    List<Map<String, String>> layers;
+    List<String> classpathResources;
+    List<String> filesystemFiles;
+    Path filesystemDirectory;
+    Map<String, String> systemProperties;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        layers = new ArrayList<>(storeCount);
+        for (int s = 0; s < storeCount; s++) {
+            layers.add(SyntheticSources.layer(keyCount, s));
+        }
+        classpathResources = new ArrayList<>(storeCount);
+        for (Path file : SyntheticSources.writeLayers(SyntheticSources.classpathDirectory(), "classpath", keyCount, storeCount)) {
+            classpathResources.add(file.getFileName().toString());
+        }
+        filesystemDirectory = Files.createTempDirectory("property-config-benchmark");
+        filesystemFiles = new ArrayList<>(storeCount);
+        for (Path file : SyntheticSources.writeLayers(filesystemDirectory, "filesystem", keyCount, storeCount)) {
+            filesystemFiles.add(file.toString());
+        }
+        SyntheticSources.installEnvironment(SyntheticSources.environment(keyCount, overrideCount));
+        systemProperties = SyntheticSources.systemProperties(keyCount, overrideCount);
+        systemProperties.forEach(System::setProperty);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() throws IOException {
+        systemProperties.keySet().forEach(System::clearProperty);
+        for (String file : filesystemFiles) {
+            Files.deleteIfExists(Paths.get(file));
+        }
+        Files.deleteIfExists(filesystemDirectory);
+    }
+
+    @State(Scope.Thread)
+    public static class PreparedBuilder {
+        ApplicationProperties.Builder builder;
+
+        @Setup(Level.Invocation)
+        public void prepare(BuildBenchmark sources) {
+            builder = sources.mapBuilder();
+        }
+    }
+
+    ApplicationProperties.Builder mapBuilder() {
+        ApplicationProperties.Builder builder = ApplicationProperties.builder();
+        for (Map<String, String> layer : layers) {
+            builder.map(layer);
+        }
+        return builder;
+    }
+
+    @Benchmark
+    public ApplicationProperties buildFromMaps() {
+        return mapBuilder().build();
+    }
+
+    @Benchmark
+    public ApplicationProperties buildFromClasspathFiles() {
+        ApplicationProperties.Builder builder = ApplicationProperties.builder();
+        for (String resource : classpathResources) {
+            builder.classpathPropertiesFile(resource);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public ApplicationProperties buildFromFilesystemFiles() {
+        ApplicationProperties.Builder builder = ApplicationProperties.builder();
+        for (String file : filesystemFiles) {
+            builder.filesystemPropertiesFile(file);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The shape of {@link ApplicationProperties.Builder#defaults()}, with every file source replaced by
+     * {@code storeCount} generated files.
+     */
+    @Benchmark
+    public ApplicationProperties buildDefaultsChain() {
+        ApplicationProperties.Builder builder = ApplicationProperties.builder();
+        for (String resource : classpathResources) {
+            builder.classpathPropertiesFile(resource);
+        }
+        for (String file : filesystemFiles) {
+            builder.filesystemPropertiesFile(file);
+        }
+        return builder
+                .enableSystemProperties()
+                .enableEnvironmentVariables()
+                .build();
+    }
+
+    @Benchmark
+    public ApplicationProperties.Builder stepEnableEnvironmentVariables(PreparedBuilder prepared) {
+        return prepared.builder.enableEnvironmentVariables();
+    }
+
+    @Benchmark
+    public ApplicationProperties.Builder stepEnableSystemProperties(PreparedBuilder prepared) {
+        return prepared.builder.enableSystemProperties();
+    }
+
+    @Benchmark
+    public ApplicationProperties stepBuild(PreparedBuilder prepared) {
+        return prepared.builder.build();
+    }
+
+    @Benchmark
+    public ApplicationProperties stepBuildWithValidation(PreparedBuilder prepared) {
+        return prepared.builder
+                .expectedProperties(ExpectedBenchmarkProperties.class)
+                .build();
+    }
+}
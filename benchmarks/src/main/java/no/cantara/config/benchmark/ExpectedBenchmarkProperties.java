@@ -0,0 +1,11 @@
+package no.cantara.config.benchmark;
+
+/**
+ * Expected properties used to enable validation when building.
+ */
+public class ExpectedBenchmarkProperties {
+    public static final String INT_KEY = SyntheticProperties.INT_KEY;
+    public static final String LONG_KEY = SyntheticProperties.LONG_KEY;
+    public static final String BOOLEAN_KEY = SyntheticProperties.BOOLEAN_KEY;
+    public static final String DOUBLE_KEY = SyntheticProperties.DOUBLE_KEY;
+}
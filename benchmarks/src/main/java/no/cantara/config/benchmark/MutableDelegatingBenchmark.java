@@ -0,0 +1,69 @@
+package no.cantara.config.benchmark;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.testsupport.ApplicationPropertiesTestHelper;
+import no.cantara.config.testsupport.MutableDelegatingApplicationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the test-mode {@link MutableDelegatingApplicationProperties} indirection compared to reading the same
+ * instance directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MutableDelegatingBenchmark {
+
+    @Param({"100", "10000"})
+    int keyCount;
+
+    ApplicationProperties direct;
+    ApplicationProperties delegating;
+    String key;
+
+    @Setup
+    public void setup() {
+        direct = ApplicationProperties.builder()
+                .map(SyntheticProperties.generate(keyCount))
+                .build();
+        MutableDelegatingApplicationProperties mutable = ApplicationPropertiesTestHelper.getInstance();
+        mutable.setDelegate(direct);
+        delegating = mutable;
+        key = new String(SyntheticProperties.key(keyCount / 2));
+    }
+
+    @Benchmark
+    public String getDirect() {
+        return direct.get(key);
+    }
+
+    @Benchmark
+    public String getDelegating() {
+        return delegating.get(key);
+    }
+
+    @Benchmark
+    public int asIntDirect() {
+        return direct.asInt(SyntheticProperties.INT_KEY);
+    }
+
+    @Benchmark
+    public int asIntDelegating() {
+        return delegating.asInt(SyntheticProperties.INT_KEY);
+    }
+}
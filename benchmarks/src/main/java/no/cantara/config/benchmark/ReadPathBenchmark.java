@@ -0,0 +1,125 @@
+package no.cantara.config.benchmark;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.IntKey;
+import no.cantara.config.PropertyKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read path of an instance built by {@link ApplicationProperties#builder()}. Hit keys are spread over the whole
+ * key-space and rotated per invocation so that large configurations are not measured with a single hot cache line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class ReadPathBenchmark {
+
+    private static final int KEY_SAMPLES = 1024;
+
+    @Param({"100", "10000", "1000000"})
+    int keyCount;
+
+    ApplicationProperties properties;
+    IntKey intKey;
+    PropertyKey<String> stringKey;
+    String[] hitKeys;
+    String[] missKeys;
+    int next;
+
+    @Setup
+    public void setup() {
+        properties = ApplicationProperties.builder()
+                .map(SyntheticProperties.generate(keyCount))
+                .property(SyntheticProperties.INT_KEY, "8443") // second source, so that sourcesOf has something to report
+                .build();
+        intKey = properties.intKey(SyntheticProperties.INT_KEY);
+        stringKey = properties.key(SyntheticProperties.key(keyCount / 2));
+        hitKeys = new String[KEY_SAMPLES];
+        missKeys = new String[KEY_SAMPLES];
+        for (int i = 0; i < KEY_SAMPLES; i++) {
+            int k = (int) ((long) i * keyCount / KEY_SAMPLES);
+            hitKeys[i] = new String(SyntheticProperties.key(k)); // not the same instance as the stored key
+            missKeys[i] = SyntheticProperties.key(k) + ".missing";
+        }
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (KEY_SAMPLES - 1);
+    }
+
+    @Benchmark
+    public String getHit() {
+        return properties.get(hitKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String getMiss() {
+        return properties.get(missKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String getWithDefaultMiss() {
+        return properties.get(missKeys[nextIndex()], "default");
+    }
+
+    @Benchmark
+    public int asInt() {
+        return properties.asInt(SyntheticProperties.INT_KEY);
+    }
+
+    @Benchmark
+    public int asIntWithDefaultMiss() {
+        return properties.asInt(missKeys[nextIndex()], 42);
+    }
+
+    @Benchmark
+    public int intKeyHandle() {
+        return intKey.getInt();
+    }
+
+    @Benchmark
+    public String stringKeyHandle() {
+        return stringKey.get();
+    }
+
+    @Benchmark
+    public long asLong() {
+        return properties.asLong(SyntheticProperties.LONG_KEY);
+    }
+
+    @Benchmark
+    public boolean asBoolean() {
+        return properties.asBoolean(SyntheticProperties.BOOLEAN_KEY);
+    }
+
+    @Benchmark
+    public double asDouble() {
+        return properties.asDouble(SyntheticProperties.DOUBLE_KEY);
+    }
+
+    @Benchmark
+    public List<ApplicationProperties.Source> sourcesOfSingleSource() {
+        return properties.sourcesOf(hitKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<ApplicationProperties.Source> sourcesOfOverridden() {
+        return properties.sourcesOf(SyntheticProperties.INT_KEY);
+    }
+}
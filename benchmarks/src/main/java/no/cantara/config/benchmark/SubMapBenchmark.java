@@ -0,0 +1,81 @@
+package no.cantara.config.benchmark;
+
+import no.cantara.config.ApplicationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApplicationProperties#subMap(String)} and {@link ApplicationProperties#subTree(String)} with a shallow prefix
+ * (large sub-tree) and a deep prefix (small sub-tree). The "AndRead" variants include one lookup in the result, which
+ * is how request handlers typically use a sub-map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class SubMapBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int keyCount;
+
+    ApplicationProperties properties;
+    String deepKey;
+
+    @Setup
+    public void setup() {
+        properties = ApplicationProperties.builder()
+                .map(SyntheticProperties.generate(keyCount))
+                .build();
+        // first generated key under DEEP_PREFIX, relative to that prefix
+        int i = 3 + 7 * SyntheticProperties.TENANTS;
+        deepKey = SyntheticProperties.key(i).substring(SyntheticProperties.DEEP_PREFIX.length() + 1);
+    }
+
+    @Benchmark
+    public Map<String, String> subMapShallow() {
+        return properties.subMap(SyntheticProperties.SHALLOW_PREFIX);
+    }
+
+    @Benchmark
+    public Map<String, String> subMapDeep() {
+        return properties.subMap(SyntheticProperties.DEEP_PREFIX);
+    }
+
+    @Benchmark
+    public String subMapDeepAndRead() {
+        return properties.subMap(SyntheticProperties.DEEP_PREFIX).get(deepKey);
+    }
+
+    @Benchmark
+    public void subMapShallowIterate(Blackhole blackhole) {
+        for (Map.Entry<String, String> entry : properties.subMap(SyntheticProperties.SHALLOW_PREFIX).entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public ApplicationProperties subTreeDeep() {
+        return properties.subTree(SyntheticProperties.DEEP_PREFIX);
+    }
+
+    @Benchmark
+    public String subTreeDeepAndRead() {
+        return properties.subTree(SyntheticProperties.DEEP_PREFIX).get(deepKey);
+    }
+}
@@ -0,0 +1,53 @@
+package no.cantara.config.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates synthetic configuration with a tenant/route/setting shape, so that prefixes of different depth select
+ * sub-trees of predictable size.
+ */
+public class SyntheticProperties {
+
+    public static final int TENANTS = 10;
+    public static final int ROUTES = 10;
+
+    public static final String INT_KEY = "bench.int";
+    public static final String LONG_KEY = "bench.long";
+    public static final String BOOLEAN_KEY = "bench.boolean";
+    public static final String DOUBLE_KEY = "bench.double";
+
+    /**
+     * Prefix matching roughly {@code 1 / TENANTS} of all generated keys.
+     */
+    public static final String SHALLOW_PREFIX = "tenant3";
+
+    /**
+     * Prefix matching roughly {@code 1 / (TENANTS * ROUTES)} of all generated keys.
+     */
+    public static final String DEEP_PREFIX = "tenant3.route7";
+
+    public static String key(int i) {
+        return "tenant" + (i % TENANTS) + ".route" + ((i / TENANTS) % ROUTES) + ".setting" + i;
+    }
+
+    public static String value(int i) {
+        return "value-" + i;
+    }
+
+    /**
+     * @param keyCount the number of generated keys, the typed benchmark keys are added on top of these.
+     * @return a new map with generated properties in insertion order.
+     */
+    public static Map<String, String> generate(int keyCount) {
+        Map<String, String> map = new LinkedHashMap<>(keyCount * 2);
+        for (int i = 0; i < keyCount; i++) {
+            map.put(key(i), value(i));
+        }
+        map.put(INT_KEY, "8080");
+        map.put(LONG_KEY, "9000000000");
+        map.put(BOOLEAN_KEY, "true");
+        map.put(DOUBLE_KEY, "0.75");
+        return map;
+    }
+}
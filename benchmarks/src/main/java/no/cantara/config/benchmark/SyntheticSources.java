@@ -0,0 +1,135 @@
+package no.cantara.config.benchmark;
+
+import no.cantara.config.EnvironmentVariableEscaping;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes synthetic configuration sources: properties files on the filesystem and on the classpath, fake environments
+ * and system-property sets. Store {@code s} of a layered configuration overrides every {@code (s + 1)}-th key of the
+ * layer below it, so that later stores both override and add keys.
+ */
+public class SyntheticSources {
+
+    /**
+     * Name of the directory that {@link BenchmarkRunner} appends to the classpath of the forked benchmark JVMs.
+     */
+    public static final String CLASSPATH_DIRECTORY_NAME = "property-config-benchmark-classpath";
+
+    public static Path classpathDirectory() {
+        String classPath = System.getProperty("java.class.path");
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (entry.endsWith(CLASSPATH_DIRECTORY_NAME)) {
+                return Paths.get(entry);
+            }
+        }
+        throw new IllegalStateException("Classpath does not contain " + CLASSPATH_DIRECTORY_NAME + ", run benchmarks with BenchmarkRunner");
+    }
+
+    public static Path defaultClasspathDirectory() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), CLASSPATH_DIRECTORY_NAME);
+    }
+
+    public static Map<String, String> layer(int keyCount, int store) {
+        Map<String, String> map = new LinkedHashMap<>();
+        int step = store + 1;
+        for (int i = 0; i < keyCount; i += step) {
+            map.put(SyntheticProperties.key(i), SyntheticProperties.value(i) + "-store" + store);
+        }
+        if (store == 0) {
+            map.putAll(SyntheticProperties.generate(0)); // typed keys
+        }
+        return map;
+    }
+
+    /**
+     * Writes one properties file per store into the given directory.
+     *
+     * @return the paths of the written files, in store order.
+     */
+    public static List<Path> writeLayers(Path directory, String namePrefix, int keyCount, int storeCount) {
+        List<Path> files = new ArrayList<>(storeCount);
+        try {
+            Files.createDirectories(directory);
+            for (int s = 0; s < storeCount; s++) {
+                Path file = directory.resolve(namePrefix + "-" + keyCount + "-" + s + ".properties");
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, String> entry : layer(keyCount, s).entrySet()) {
+                        writer.write(entry.getKey());
+                        writer.write('=');
+                        writer.write(entry.getValue());
+                        writer.write('\n');
+                    }
+                }
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return files;
+    }
+
+    /**
+     * Half of the generated variables override generated keys, the other half is unrelated noise that every
+     * environment store must still scan.
+     */
+    public static Map<String, String> environment(int keyCount, int variableCount) {
+        Map<String, String> env = new LinkedHashMap<>();
+        for (int i = 0; i < variableCount; i++) {
+            if (i % 2 == 0) {
+                env.put(EnvironmentVariableEscaping.escape(SyntheticProperties.key(i % keyCount)), "from-env-" + i);
+            } else {
+                env.put("UNRELATED_VARIABLE_" + i, "noise-" + i);
+            }
+        }
+        return env;
+    }
+
+    /**
+     * Same shape as {@link #environment(int, int)}, but with java property names.
+     */
+    public static Map<String, String> systemProperties(int keyCount, int propertyCount) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            if (i % 2 == 0) {
+                properties.put(SyntheticProperties.key(i % keyCount), "from-sysprop-" + i);
+            } else {
+                properties.put("unrelated.property." + i, "noise-" + i);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Adds the given variables to the map behind {@link System#getenv()}. Requires
+     * {@code --add-opens java.base/java.util=ALL-UNNAMED} on JDK 9 and later.
+     */
+    @SuppressWarnings("unchecked")
+    public static void installEnvironment(Map<String, String> variables) {
+        try {
+            Map<String, String> env = System.getenv();
+            for (Class<?> cl : Collections.class.getDeclaredClasses()) {
+                if ("java.util.Collections$UnmodifiableMap".equals(cl.getName())) {
+                    Field field = cl.getDeclaredField("m");
+                    field.setAccessible(true);
+                    ((Map<String, String>) field.get(env)).putAll(variables);
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to install fake environment", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package no.cantara.config.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Helpers for writing generated source files.
+ */
+class GeneratedSources {
+
+    private GeneratedSources() {
+    }
+
+    /**
+     * @return the package of the type, or an empty string for the unnamed package
+     */
+    static String packageOf(TypeElement type) {
+        Element element = type;
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        PackageElement packageElement = (PackageElement) element;
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    /**
+     * @return the simple names of the type and its enclosing types joined by underscores, followed by the suffix
+     */
+    static String generatedName(TypeElement type, String suffix) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind().isClass() || enclosing.getKind().isInterface()) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append(suffix).toString();
+    }
+
+    /**
+     * @return the package declaration for the package, followed by an empty line, or an empty string
+     */
+    static String packageDeclaration(String packageName) {
+        return packageName.isEmpty() ? "" : "package " + packageName + ";\n\n";
+    }
+
+    /**
+     * @return the string as a Java string literal
+     */
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,116 @@
+package no.cantara.config.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static no.cantara.config.processor.GeneratedSources.generatedName;
+import static no.cantara.config.processor.GeneratedSources.literal;
+import static no.cantara.config.processor.GeneratedSources.packageDeclaration;
+import static no.cantara.config.processor.GeneratedSources.packageOf;
+
+/**
+ * Generates a PropertyKeyIndex for each class annotated with ExpectedProperties, holding the values of its static
+ * String constants in declaration order. The values are read from the constant pool of the compiler, so fields of any
+ * visibility are supported. Static String fields that are not compile-time constants are reported as errors, as their
+ * values are only known at runtime.
+ */
+public class PropertyKeyIndexProcessor extends AbstractProcessor {
+
+    static final String EXPECTED_PROPERTIES = "no.cantara.config.ExpectedProperties";
+    static final String SUFFIX = "Keys";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(EXPECTED_PROPERTIES);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                Set<String> keys = keysOf(type);
+                if (keys != null) {
+                    write(type, keys);
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * The keys of the type, or null if an error was reported.
+     */
+    private Set<String> keysOf(TypeElement type) {
+        Set<String> keys = new LinkedHashSet<>();
+        boolean valid = true;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD || !member.getModifiers().contains(Modifier.STATIC)
+                    || !member.asType().toString().equals(String.class.getName())) {
+                continue;
+            }
+            Object value = ((VariableElement) member).getConstantValue();
+            if (value == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Expected property field " + member.getSimpleName() + " must be a static final String initialized with a constant", member);
+                valid = false;
+            } else if (!((String) value).isEmpty()) {
+                keys.add((String) value);
+            }
+        }
+        return valid ? keys : null;
+    }
+
+    private void write(TypeElement type, Set<String> keys) {
+        String packageName = packageOf(type);
+        String name = generatedName(type, SUFFIX);
+        StringBuilder source = new StringBuilder();
+        source.append(packageDeclaration(packageName));
+        source.append("/**\n");
+        source.append(" * Expected property keys of {@link ").append(type.getQualifiedName()).append("}, generated by ")
+                .append(getClass().getName()).append(".\n");
+        source.append(" */\n");
+        source.append("public final class ").append(name).append(" implements no.cantara.config.PropertyKeyIndex {\n\n");
+        source.append("    public static final ").append(name).append(" INSTANCE = new ").append(name).append("();\n\n");
+        source.append("    private static final java.util.List<String> KEYS = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        String separator = "\n            ";
+        for (String key : keys) {
+            source.append(separator).append(literal(key));
+            separator = ",\n            ";
+        }
+        source.append("));\n\n");
+        source.append("    private ").append(name).append("() {\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.List<String> keys() {\n");
+        source.append("        return KEYS;\n");
+        source.append("    }\n");
+        source.append("}\n");
+        String qualifiedName = packageName.isEmpty() ? name : packageName + "." + name;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + qualifiedName + ": " + e, type);
+        }
+    }
+}
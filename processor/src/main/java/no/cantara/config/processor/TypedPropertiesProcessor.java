@@ -0,0 +1,451 @@
+package no.cantara.config.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static no.cantara.config.processor.GeneratedSources.generatedName;
+import static no.cantara.config.processor.GeneratedSources.literal;
+import static no.cantara.config.processor.GeneratedSources.packageDeclaration;
+import static no.cantara.config.processor.GeneratedSources.packageOf;
+
+/**
+ * Generates an implementation of each interface annotated with TypedProperties. The implementation reads and parses
+ * all properties in its constructor and stores them in final fields, so the accessors neither look up nor parse
+ * values.
+ */
+public class TypedPropertiesProcessor extends AbstractProcessor {
+
+    static final String TYPED_PROPERTIES = "no.cantara.config.TypedProperties";
+    static final String KEY = "no.cantara.config.TypedProperties.Key";
+    static final String DEFAULT = "no.cantara.config.TypedProperties.Default";
+    static final String SUFFIX = "Impl";
+
+    /*
+     * Supported return types, and how to read them with and without a default value.
+     */
+    enum ValueType {
+        STRING("String", true) {
+            @Override
+            String read(String key) {
+                return "properties.get(" + key + ")";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "properties.get(" + key + ", " + literal(defaultValue) + ")";
+            }
+        },
+        INT("int", true) {
+            @Override
+            String read(String key) {
+                return "properties.asInt(" + key + ")";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "properties.asInt(" + key + ", " + Integer.parseInt(defaultValue) + ")";
+            }
+        },
+        LONG("long", true) {
+            @Override
+            String read(String key) {
+                return "properties.asLong(" + key + ")";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "properties.asLong(" + key + ", " + Long.parseLong(defaultValue) + "L)";
+            }
+        },
+        BOOLEAN("boolean", true) {
+            @Override
+            String read(String key) {
+                return "properties.asBoolean(" + key + ")";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                if (!"true".equalsIgnoreCase(defaultValue) && !"false".equalsIgnoreCase(defaultValue)) {
+                    throw new IllegalArgumentException("Not a boolean: " + defaultValue);
+                }
+                return "properties.asBoolean(" + key + ", " + Boolean.parseBoolean(defaultValue) + ")";
+            }
+        },
+        DOUBLE("double", true) {
+            @Override
+            String read(String key) {
+                return "properties.asDouble(" + key + ")";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                double value = Double.parseDouble(defaultValue);
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    throw new NumberFormatException("Not a finite number: " + defaultValue);
+                }
+                return "properties.asDouble(" + key + ", " + value + "d)";
+            }
+        },
+        INTEGER_OBJECT("Integer", false) {
+            @Override
+            String read(String key) {
+                return "nullOr(properties.get(" + key + "), Integer::valueOf)";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "Integer.valueOf(" + INT.read(key, defaultValue) + ")";
+            }
+        },
+        LONG_OBJECT("Long", false) {
+            @Override
+            String read(String key) {
+                return "nullOr(properties.get(" + key + "), Long::valueOf)";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "Long.valueOf(" + LONG.read(key, defaultValue) + ")";
+            }
+        },
+        BOOLEAN_OBJECT("Boolean", false) {
+            @Override
+            String read(String key) {
+                return "nullOr(properties.get(" + key + "), Boolean::valueOf)";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "Boolean.valueOf(" + BOOLEAN.read(key, defaultValue) + ")";
+            }
+        },
+        DOUBLE_OBJECT("Double", false) {
+            @Override
+            String read(String key) {
+                return "nullOr(properties.get(" + key + "), Double::valueOf)";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "Double.valueOf(" + DOUBLE.read(key, defaultValue) + ")";
+            }
+        },
+        OPTIONAL_STRING("java.util.Optional<String>", false) {
+            @Override
+            String read(String key) {
+                return "java.util.Optional.ofNullable(properties.get(" + key + "))";
+            }
+
+            @Override
+            String read(String key, String defaultValue) {
+                return "java.util.Optional.of(" + STRING.read(key, defaultValue) + ")";
+            }
+        };
+
+        final String javaType;
+
+        /*
+         * Whether the property must be present when there is no default.
+         */
+        final boolean required;
+
+        ValueType(String javaType, boolean required) {
+            this.javaType = javaType;
+            this.required = required;
+        }
+
+        /**
+         * @param key the key as a Java expression
+         * @return an expression that reads the property from a variable named properties
+         */
+        abstract String read(String key);
+
+        /**
+         * @param key the key as a Java expression
+         * @return an expression that reads the property, or the parsed default value if the property is not present
+         * @throws IllegalArgumentException if the default value cannot be parsed
+         */
+        abstract String read(String key, String defaultValue);
+
+        static ValueType of(TypeMirror type) {
+            switch (type.getKind()) {
+                case INT:
+                    return INT;
+                case LONG:
+                    return LONG;
+                case BOOLEAN:
+                    return BOOLEAN;
+                case DOUBLE:
+                    return DOUBLE;
+                case DECLARED:
+                    break;
+                default:
+                    return null;
+            }
+            switch (type.toString()) {
+                case "java.lang.String":
+                    return STRING;
+                case "java.lang.Integer":
+                    return INTEGER_OBJECT;
+                case "java.lang.Long":
+                    return LONG_OBJECT;
+                case "java.lang.Boolean":
+                    return BOOLEAN_OBJECT;
+                case "java.lang.Double":
+                    return DOUBLE_OBJECT;
+                case "java.util.Optional<java.lang.String>":
+                    return OPTIONAL_STRING;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /*
+     * A property read by a method of the interface.
+     */
+    static final class Accessor {
+        final ExecutableElement method;
+        final ValueType type;
+        final String key;
+        final String defaultValue;
+
+        Accessor(ExecutableElement method, ValueType type, String key, String defaultValue) {
+            this.method = method;
+            this.type = type;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        boolean required() {
+            return type.required && defaultValue == null;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(TYPED_PROPERTIES);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.INTERFACE) {
+                    error("@TypedProperties is only supported on interfaces", element);
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                List<Accessor> accessors = accessorsOf(type);
+                if (accessors != null) {
+                    write(type, accessors);
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * The accessors of the interface and the interfaces it extends, or null if an error was reported.
+     */
+    private List<Accessor> accessorsOf(TypeElement type) {
+        String prefix = annotationValue(type, TYPED_PROPERTIES, "prefix");
+        List<Accessor> accessors = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        boolean valid = true;
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD || !member.getModifiers().contains(Modifier.ABSTRACT)
+                    || member.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) member;
+            if (!names.add(method.getSimpleName().toString())) {
+                continue; // declared by several interfaces
+            }
+            if (!method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()) {
+                error("Property methods must not have parameters", method);
+                valid = false;
+                continue;
+            }
+            if (method.getReturnType().getKind() == TypeKind.ERROR) {
+                valid = false; // reported by the compiler
+                continue;
+            }
+            ValueType valueType = ValueType.of(method.getReturnType());
+            if (valueType == null) {
+                error("Unsupported property type " + method.getReturnType() + ", use String, int, long, boolean, double, their wrapper types or Optional<String>", method);
+                valid = false;
+                continue;
+            }
+            String name = annotationValue(method, KEY, "value");
+            if (name == null) {
+                name = keyOf(method.getSimpleName().toString(), valueType);
+            }
+            String key = prefix == null || prefix.isEmpty() ? name : prefix + "." + name;
+            String defaultValue = annotationValue(method, DEFAULT, "value");
+            if (defaultValue != null) {
+                try {
+                    valueType.read(literal(key), defaultValue);
+                } catch (IllegalArgumentException e) {
+                    error("Invalid default value " + literal(defaultValue) + " for property type " + method.getReturnType(), method);
+                    valid = false;
+                    continue;
+                }
+            }
+            accessors.add(new Accessor(method, valueType, key, defaultValue));
+        }
+        return valid ? accessors : null;
+    }
+
+    /*
+     * The method name without a get or is prefix, with camel-case words separated by dots and in lower case.
+     */
+    static String keyOf(String methodName, ValueType type) {
+        String name = methodName;
+        if (name.length() > 3 && name.startsWith("get") && Character.isUpperCase(name.charAt(3))) {
+            name = name.substring(3);
+        } else if (name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))
+                && (type == ValueType.BOOLEAN || type == ValueType.BOOLEAN_OBJECT)) {
+            name = name.substring(2);
+        }
+        StringBuilder key = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                // a new word starts at an upper-case letter, unless it continues an acronym
+                boolean previousUpper = i > 0 && Character.isUpperCase(name.charAt(i - 1));
+                boolean nextLower = i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1));
+                if (i > 0 && (!previousUpper || nextLower)) {
+                    key.append('.');
+                }
+                key.append(Character.toLowerCase(c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /*
+     * The string value of an annotation attribute, or null if the element is not annotated.
+     */
+    private static String annotationValue(Element element, String annotationName, String attribute) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+            return ""; // all attributes of the annotations default to an empty string
+        }
+        return null;
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void write(TypeElement type, List<Accessor> accessors) {
+        String packageName = packageOf(type);
+        String name = generatedName(type, SUFFIX);
+        boolean nullable = false;
+        StringBuilder source = new StringBuilder();
+        source.append(packageDeclaration(packageName));
+        source.append("/**\n");
+        source.append(" * Implementation of {@link ").append(type.getQualifiedName()).append("} with values read when constructed, generated by ")
+                .append(getClass().getName()).append(".\n");
+        source.append(" */\n");
+        source.append("public final class ").append(name).append(" implements ").append(type.getQualifiedName()).append(" {\n\n");
+
+        source.append("    /**\n");
+        source.append("     * Properties without a default value that must be present.\n");
+        source.append("     */\n");
+        source.append("    public static final no.cantara.config.PropertyKeyIndex REQUIRED_KEYS;\n\n");
+        source.append("    static {\n");
+        source.append("        java.util.List<String> keys = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        String separator = "\n                ";
+        for (Accessor accessor : accessors) {
+            if (accessor.required()) {
+                source.append(separator).append(literal(accessor.key));
+                separator = ",\n                ";
+            }
+        }
+        source.append("));\n");
+        source.append("        REQUIRED_KEYS = () -> keys;\n");
+        source.append("    }\n\n");
+
+        for (Accessor accessor : accessors) {
+            source.append("    private final ").append(accessor.type.javaType).append(' ').append(accessor.method.getSimpleName()).append(";\n");
+        }
+        source.append('\n');
+
+        source.append("    public ").append(name).append("(no.cantara.config.ApplicationProperties properties) {\n");
+        source.append("        java.util.List<String> missing = new java.util.ArrayList<>();\n");
+        source.append("        for (String key : REQUIRED_KEYS.keys()) {\n");
+        source.append("            if (properties.get(key) == null) {\n");
+        source.append("                missing.add(key);\n");
+        source.append("            }\n");
+        source.append("        }\n");
+        source.append("        if (!missing.isEmpty()) {\n");
+        source.append("            throw new RuntimeException(\"Expected properties is not loaded \" + missing);\n");
+        source.append("        }\n");
+        for (Accessor accessor : accessors) {
+            String key = literal(accessor.key);
+            String read = accessor.defaultValue == null ? accessor.type.read(key) : accessor.type.read(key, accessor.defaultValue);
+            nullable |= read.startsWith("nullOr(");
+            source.append("        this.").append(accessor.method.getSimpleName()).append(" = ").append(read).append(";\n");
+        }
+        source.append("    }\n");
+
+        if (nullable) {
+            source.append('\n');
+            source.append("    private static <T> T nullOr(String value, java.util.function.Function<String, T> parser) {\n");
+            source.append("        return value == null ? null : parser.apply(value);\n");
+            source.append("    }\n");
+        }
+
+        for (Accessor accessor : accessors) {
+            source.append('\n');
+            source.append("    @Override\n");
+            source.append("    public ").append(accessor.type.javaType).append(' ').append(accessor.method.getSimpleName()).append("() {\n");
+            source.append("        return ").append(accessor.method.getSimpleName()).append(";\n");
+            source.append("    }\n");
+        }
+        source.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? name : packageName + "." + name;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error("Unable to write " + qualifiedName + ": " + e, type);
+        }
+    }
+}
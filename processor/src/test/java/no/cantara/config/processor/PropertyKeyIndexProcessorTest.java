@@ -0,0 +1,71 @@
+package no.cantara.config.processor;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.PropertyKeyIndex;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PropertyKeyIndexProcessorTest {
+
+    @Test
+    public void thatConstantsAreIndexedInDeclarationOrder() throws Exception {
+        TestCompiler compilation = TestCompiler.compile(new PropertyKeyIndexProcessor(),
+                "com.example.MainProperties", ""
+                        + "package com.example;\n"
+                        + "@no.cantara.config.ExpectedProperties\n"
+                        + "class MainProperties {\n"
+                        + "    public static final String SERVER_PORT = \"server.port\";\n"
+                        + "    private static final String SERVER_HOST = \"server\" + \".host\";\n"
+                        + "    static final String QUOTED = \"a\\\"b\";\n"
+                        + "    static final String DUPLICATE = \"server.port\";\n"
+                        + "    static final String EMPTY = \"\";\n"
+                        + "    static final int NOT_A_KEY = 1;\n"
+                        + "    final String instanceField = \"ignored\";\n"
+                        + "    @no.cantara.config.ExpectedProperties\n"
+                        + "    static class Nested {\n"
+                        + "        static final String NAME = \"nested.name\";\n"
+                        + "    }\n"
+                        + "}\n");
+        assertThat(compilation.errors()).isEmpty();
+        PropertyKeyIndex index = (PropertyKeyIndex) compilation.load("com.example.MainPropertiesKeys").getField("INSTANCE").get(null);
+        assertThat(index.keys()).containsExactly("server.port", "server.host", "a\"b");
+        PropertyKeyIndex nested = (PropertyKeyIndex) compilation.load("com.example.MainProperties_NestedKeys").getField("INSTANCE").get(null);
+        assertThat(nested.keys()).containsExactly("nested.name");
+    }
+
+    @Test
+    public void thatNonConstantFieldsAreErrors() {
+        TestCompiler compilation = TestCompiler.compile(new PropertyKeyIndexProcessor(),
+                "com.example.RuntimeProperties", ""
+                        + "package com.example;\n"
+                        + "@no.cantara.config.ExpectedProperties\n"
+                        + "class RuntimeProperties {\n"
+                        + "    static final String COMPUTED = String.valueOf(\"server.port\");\n"
+                        + "}\n");
+        assertThat(compilation.success).isFalse();
+        assertThat(compilation.errors()).contains("COMPUTED");
+    }
+
+    @Test
+    public void thatBuilderValidatesIndexedKeys() throws Exception {
+        TestCompiler compilation = TestCompiler.compile(new PropertyKeyIndexProcessor(),
+                "com.example.ServiceProperties", ""
+                        + "package com.example;\n"
+                        + "@no.cantara.config.ExpectedProperties\n"
+                        + "public class ServiceProperties {\n"
+                        + "    public static final String URL = \"service.url\";\n"
+                        + "}\n");
+        PropertyKeyIndex index = (PropertyKeyIndex) compilation.load("com.example.ServicePropertiesKeys").getField("INSTANCE").get(null);
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .expectedProperties(index)
+                .property("service.url", "http://localhost")
+                .build();
+        assertThat(properties.get("service.url")).isEqualTo("http://localhost");
+        assertThatThrownBy(() -> ApplicationProperties.builder()
+                .expectedProperties(index)
+                .build())
+                .hasMessageContaining("service.url");
+    }
+}
@@ -0,0 +1,100 @@
+package no.cantara.config.processor;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles sources with a processor, with the test class-path as class-path.
+ */
+class TestCompiler {
+
+    final Path output;
+    final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+    final boolean success;
+
+    private TestCompiler(Path output, List<Diagnostic<? extends JavaFileObject>> diagnostics, boolean success) {
+        this.output = output;
+        this.diagnostics = diagnostics;
+        this.success = success;
+    }
+
+    /**
+     * @param sources pairs of qualified class name and source code
+     */
+    static TestCompiler compile(Processor processor, String... sources) {
+        try {
+            Path output = Files.createTempDirectory("property-config-processor");
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+            List<JavaFileObject> units = new ArrayList<>();
+            for (int i = 0; i < sources.length; i += 2) {
+                units.add(new Source(sources[i], sources[i + 1]));
+            }
+            List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", output.toString(),
+                    "-s", output.toString());
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8)) {
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector, options, null, units);
+                task.setProcessors(Arrays.asList(processor));
+                boolean success = task.call();
+                return new TestCompiler(output, collector.getDiagnostics(), success);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String errors() {
+        return diagnostics.stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    String generatedSource(String qualifiedName) throws IOException {
+        return new String(Files.readAllBytes(output.resolve(qualifiedName.replace('.', '/') + ".java")), StandardCharsets.UTF_8);
+    }
+
+    Class<?> load(String qualifiedName) throws ClassNotFoundException {
+        try {
+            ClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+            return Class.forName(qualifiedName, true, classLoader);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+        final String code;
+
+        Source(String qualifiedName, String code) {
+            super(URI.create("string:///" + qualifiedName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}
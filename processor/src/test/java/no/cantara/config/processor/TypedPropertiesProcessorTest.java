@@ -0,0 +1,109 @@
+package no.cantara.config.processor;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.PropertyKeyIndex;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypedPropertiesProcessorTest {
+
+    static final String SERVER_CONFIG = ""
+            + "package com.example;\n"
+            + "import no.cantara.config.TypedProperties;\n"
+            + "import java.util.Optional;\n"
+            + "@TypedProperties(prefix = \"server\")\n"
+            + "public interface ServerConfig {\n"
+            + "    String host();\n"
+            + "    @TypedProperties.Default(\"8080\")\n"
+            + "    int getPort();\n"
+            + "    long connectTimeoutMs();\n"
+            + "    @TypedProperties.Default(\"false\")\n"
+            + "    boolean isSecure();\n"
+            + "    @TypedProperties.Default(\"0.5\")\n"
+            + "    double loadFactor();\n"
+            + "    Integer maxConnections();\n"
+            + "    @TypedProperties.Key(\"TLS.version\")\n"
+            + "    Optional<String> tlsVersion();\n"
+            + "    default String url() {\n"
+            + "        return \"http://\" + host() + \":\" + getPort();\n"
+            + "    }\n"
+            + "}\n";
+
+    static Object create(TestCompiler compilation, String className, ApplicationProperties properties) throws Exception {
+        try {
+            return compilation.load(className).getConstructor(ApplicationProperties.class).newInstance(properties);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    @Test
+    public void thatValuesAreReadWhenConstructed() throws Exception {
+        TestCompiler compilation = TestCompiler.compile(new TypedPropertiesProcessor(), "com.example.ServerConfig", SERVER_CONFIG);
+        assertThat(compilation.errors()).isEmpty();
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .property("server.host", "localhost")
+                .property("server.connect.timeout.ms", "1500")
+                .property("server.secure", "true")
+                .property("server.TLS.version", "1.3")
+                .build();
+        Object config = create(compilation, "com.example.ServerConfigImpl", properties);
+        Class<?> type = config.getClass().getInterfaces()[0];
+        assertThat(type.getMethod("host").invoke(config)).isEqualTo("localhost");
+        assertThat(type.getMethod("getPort").invoke(config)).isEqualTo(8080);
+        assertThat(type.getMethod("connectTimeoutMs").invoke(config)).isEqualTo(1500L);
+        assertThat(type.getMethod("isSecure").invoke(config)).isEqualTo(true);
+        assertThat(type.getMethod("loadFactor").invoke(config)).isEqualTo(0.5d);
+        assertThat(type.getMethod("maxConnections").invoke(config)).isNull();
+        assertThat(type.getMethod("tlsVersion").invoke(config)).isEqualTo(Optional.of("1.3"));
+        assertThat(type.getMethod("url").invoke(config)).isEqualTo("http://localhost:8080");
+
+        PropertyKeyIndex requiredKeys = (PropertyKeyIndex) compilation.load("com.example.ServerConfigImpl").getField("REQUIRED_KEYS").get(null);
+        assertThat(requiredKeys.keys()).containsExactly("server.host", "server.connect.timeout.ms");
+    }
+
+    @Test
+    public void thatAllMissingPropertiesAreReported() throws Exception {
+        TestCompiler compilation = TestCompiler.compile(new TypedPropertiesProcessor(), "com.example.ServerConfig", SERVER_CONFIG);
+        ApplicationProperties properties = ApplicationProperties.builder().property("server.port", "80").build();
+        try {
+            create(compilation, "com.example.ServerConfigImpl", properties);
+            throw new AssertionError("Expected missing properties");
+        } catch (RuntimeException e) {
+            assertThat(e).hasMessageContaining("server.host").hasMessageContaining("server.connect.timeout.ms");
+        }
+    }
+
+    @Test
+    public void thatInvalidDeclarationsAreCompileErrors() {
+        TestCompiler compilation = TestCompiler.compile(new TypedPropertiesProcessor(),
+                "com.example.InvalidConfig", ""
+                        + "package com.example;\n"
+                        + "import no.cantara.config.TypedProperties;\n"
+                        + "@TypedProperties\n"
+                        + "public interface InvalidConfig {\n"
+                        + "    @TypedProperties.Default(\"eighty\")\n"
+                        + "    int port();\n"
+                        + "    java.time.Duration timeout();\n"
+                        + "    String name(String defaultName);\n"
+                        + "}\n");
+        assertThat(compilation.success).isFalse();
+        assertThat(compilation.errors())
+                .contains("\"eighty\"")
+                .contains("java.time.Duration")
+                .contains("parameters");
+    }
+
+    @Test
+    public void thatMethodNamesAreSplitIntoWords() {
+        assertThat(TypedPropertiesProcessor.keyOf("getBaseURL", TypedPropertiesProcessor.ValueType.STRING)).isEqualTo("base.url");
+        assertThat(TypedPropertiesProcessor.keyOf("httpPort", TypedPropertiesProcessor.ValueType.INT)).isEqualTo("http.port");
+        assertThat(TypedPropertiesProcessor.keyOf("isEnabled", TypedPropertiesProcessor.ValueType.BOOLEAN)).isEqualTo("enabled");
+        assertThat(TypedPropertiesProcessor.keyOf("isoCode", TypedPropertiesProcessor.ValueType.STRING)).isEqualTo("iso.code");
+        assertThat(TypedPropertiesProcessor.keyOf("get", TypedPropertiesProcessor.ValueType.STRING)).isEqualTo("get");
+    }
+}
@@ -3,8 +3,8 @@ package no.cantara.config;
 import no.cantara.config.store.StoreBasedApplicationProperties;
 import no.cantara.config.testsupport.MutableDelegatingApplicationProperties;
 
-import java.util.AbstractMap;
-import java.util.Collections;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -15,8 +15,8 @@ import java.util.stream.Collectors;
  * calls from any other thread to {@link #getInstance()}. Calls to {@link #map()} or {@link #get(String)} or any other
  * method for extracting effective property values are only reading from effective read-only data-structures and hence
  * do not need to be synchronized and are not synchronized internally by classes that implement this interface. So the
- * only cost of extracting property values using instances of this interface is one read operation to a
- * {@link java.util.LinkedHashMap} wrapped with a {@link Collections#unmodifiableMap(Map)}.
+ * only cost of extracting property values using instances of this interface is one lookup in an immutable
+ * open-addressing map that keeps keys, values and hashes in flat arrays.
  */
 public interface ApplicationProperties {
 
@@ -69,6 +69,17 @@ public interface ApplicationProperties {
         return ApplicationProperties.builder().map(subMap(prefix)).build();
     }
 
+    /**
+     * Bind the sub-map with the given prefix to a new instance of a POJO or record, see {@link ConfigBinder}.
+     *
+     * @param prefix a prefix to match all properties against, as passed to {@link #subMap(String)}
+     * @param type   a POJO or record class
+     * @return a new instance of the class bound to the sub-map
+     */
+    default <T> T bind(String prefix, Class<T> type) {
+        return ConfigBinder.bind(subMap(prefix), type);
+    }
+
     interface Source {
         String propertyName();
 
@@ -95,6 +106,44 @@ public interface ApplicationProperties {
         return sb.toString();
     }
 
+    /**
+     * Write the sources of all properties to the given output, in the same format as {@link #debugAll(boolean)} but
+     * ordered by property name, without building the whole dump in memory.
+     *
+     * @param out                    where to write
+     * @param debugOverriddenSources whether to include non-effective sources for debugged properties
+     * @throws IOException if writing to the output fails
+     */
+    default void debugAll(Appendable out, boolean debugOverriddenSources) throws IOException {
+        debugAll(out, "", 0, Integer.MAX_VALUE, debugOverriddenSources);
+    }
+
+    /**
+     * Write the sources of a page of the properties that start with the given prefix to the given output, in the same
+     * format as {@link #debugAll(boolean)}. Properties are ordered by name, so consecutive pages can be written by
+     * increasing the offset with the number of properties written, until fewer than limit properties are written.
+     *
+     * @param out                    where to write
+     * @param prefix                 the prefix of the names of the properties to write, the empty string for all
+     * @param offset                 the number of matching properties to skip
+     * @param limit                  the maximum number of properties to write
+     * @param debugOverriddenSources whether to include non-effective sources for debugged properties
+     * @return the number of properties written
+     * @throws IOException if writing to the output fails
+     */
+    default int debugAll(Appendable out, String prefix, int offset, int limit, boolean debugOverriddenSources) throws IOException {
+        List<String> names = map().keySet().stream()
+                .filter(name -> name.startsWith(prefix))
+                .sorted()
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+        for (String name : names) {
+            DebugUtils.debugSources(sourcesOf(name), debugOverriddenSources, out);
+        }
+        return names.size();
+    }
+
     default String get(String name, String defaultValue) {
         String value = get(name);
         if (value != null) {
@@ -155,6 +204,63 @@ public interface ApplicationProperties {
         return defaultValue;
     }
 
+    /**
+     * Get a handle to the property with the given name. Keep the handle and reuse it where the same property is read
+     * repeatedly, implementations may resolve the name once so that reads through the handle are cheaper than
+     * {@link #get(String)}.
+     *
+     * @param name the name of the property
+     * @return a handle bound to this instance
+     */
+    default PropertyKey<String> key(String name) {
+        return new NameBasedPropertyKeys.NameBasedStringKey(this, name);
+    }
+
+    /**
+     * Like {@link #key(String)}, but with primitive int accessors.
+     *
+     * @param name the name of the property
+     * @return a handle bound to this instance
+     */
+    default IntKey intKey(String name) {
+        return new NameBasedPropertyKeys.NameBasedIntKey(this, name);
+    }
+
+    /**
+     * Like {@link #key(String)}, but with primitive boolean accessors.
+     *
+     * @param name the name of the property
+     * @return a handle bound to this instance
+     */
+    default BooleanKey booleanKey(String name) {
+        return new NameBasedPropertyKeys.NameBasedBooleanKey(this, name);
+    }
+
+    /**
+     * Register a listener that is notified with the changes of every snapshot published by this instance. Instances
+     * that never change, like the ones built by {@link Builder#build()}, accept the listener but never notify it.
+     *
+     * @param listener the listener
+     * @return a registration that removes the listener when closed
+     */
+    default PropertyChangeListener.Registration addChangeListener(PropertyChangeListener listener) {
+        return () -> {
+        };
+    }
+
+    /**
+     * Like {@link #addChangeListener(PropertyChangeListener)}, but only for properties in the sub-map with the given
+     * prefix. Names in the changes are stripped of the prefix, the same way as with {@link #subMap(String)}.
+     *
+     * @param prefix   a prefix to match all properties against
+     * @param listener the listener
+     * @return a registration that removes the listener when closed
+     */
+    default PropertyChangeListener.Registration addChangeListener(String prefix, PropertyChangeListener listener) {
+        return () -> {
+        };
+    }
+
     default String logObfuscatedProperties() {
         return logObfuscatedProperties(map());
     }
@@ -234,12 +340,54 @@ public interface ApplicationProperties {
                     .classpathPropertiesFile("test_override.properties");
         }
 
+        /**
+         * Set how the code location of sources configured after this call is captured, see
+         * {@link Source#stackTraceElement()}. The default is read from the system property
+         * {@value SourceConfigurationLocationException.Capture#SYSTEM_PROPERTY}, or
+         * {@link SourceConfigurationLocationException.Capture#FULL_STACK} if not set. Use
+         * {@link SourceConfigurationLocationException.Capture#SIGNIFICANT_FRAME} or
+         * {@link SourceConfigurationLocationException.Capture#NONE} to reduce build time and retained heap in
+         * production.
+         *
+         * @param capture the capture mode
+         * @return this builder
+         */
+        default Builder sourceLocationCapture(SourceConfigurationLocationException.Capture capture) {
+            throw new UnsupportedOperationException();
+        }
+
         Builder expectedProperties(Class... expectedApplicationProperties);
 
+        /**
+         * Expect the keys of the given indexes, like {@link #expectedProperties(Class...)} does for the static String
+         * fields of classes, but without reflection. Indexes are generated for classes annotated with
+         * {@link ExpectedProperties}.
+         *
+         * @param expectedApplicationProperties indexes of expected property keys
+         * @return this builder
+         */
+        default Builder expectedProperties(PropertyKeyIndex... expectedApplicationProperties) {
+            throw new UnsupportedOperationException();
+        }
+
         Builder classpathPropertiesFile(String resourcePath);
 
         Builder filesystemPropertiesFile(String resourcePath);
 
+        /**
+         * Add every property-file that matches the glob pattern, e.g. "conf.d/*.properties", as a separate source. The
+         * leading directories without glob characters form the base directory, and the rest of the pattern is matched
+         * against paths relative to it using the glob syntax of {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+         * Matching files are read in parallel, and are added in the order of their relative paths, so that a file sorted
+         * later overrides properties of the files sorted before it.
+         *
+         * @param glob the glob pattern
+         * @return this builder
+         */
+        default Builder filesystemPropertiesFiles(String glob) {
+            throw new UnsupportedOperationException();
+        }
+
         Builder map(Map<String, String> map);
 
         Builder enableEnvironmentVariables();
@@ -262,6 +410,27 @@ public interface ApplicationProperties {
 
         Builder enableSystemProperties(String prefix);
 
+        /**
+         * Like {@link #enableSystemProperties()}, but the overrides are copied once when building, so that reading
+         * sources afterwards does not access the synchronized system-properties. Use
+         * {@link RefreshableApplicationProperties#refreshSystemProperties()} to pick up later changes.
+         *
+         * @return this builder
+         */
+        default Builder enableSystemPropertiesSnapshot() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Like {@link #enableSystemProperties(String)}, but with the overrides copied once when building.
+         *
+         * @param prefix the prefix of system-properties to use, stripped from property names
+         * @return this builder
+         */
+        default Builder enableSystemPropertiesSnapshot(String prefix) {
+            throw new UnsupportedOperationException();
+        }
+
         Builder property(String name, String value);
 
         ValueBuilder values();
@@ -292,6 +461,33 @@ public interface ApplicationProperties {
             Builder end();
         }
 
+        /**
+         * Cache the result of {@link #build()} in the given file. When a later build has the same inputs, the
+         * properties and their sources are loaded from the file instead of reading and merging the configured sources.
+         * Inputs are the values configured on this builder, the URLs and contents of classpath resources, the sizes
+         * and modification times of property-files, and the environment-variables and system-properties that could
+         * override a property. The file is written again whenever the inputs have changed. Sources of a cached instance
+         * report the properties they contributed when the cache was written, and system-properties are not read again,
+         * not even by {@link RefreshableApplicationProperties#refreshSystemProperties()}.
+         *
+         * @param file the path of the cache file
+         * @return this builder
+         */
+        default Builder startupCache(String file) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Use the given obfuscator to decide which properties hold secrets when properties are logged, instead of
+         * {@link PropertyObfuscator#defaults()}.
+         *
+         * @param obfuscator the obfuscator
+         * @return this builder
+         */
+        default Builder obfuscator(PropertyObfuscator obfuscator) {
+            throw new UnsupportedOperationException();
+        }
+
         /**
          * Builds this builder producing an {@link ApplicationProperties} instance.
          *
@@ -299,6 +495,18 @@ public interface ApplicationProperties {
          */
         ApplicationProperties build();
 
+        /**
+         * Builds this builder producing an instance that reloads changed property-files. Files configured with
+         * {@link #filesystemPropertiesFile(String)} are watched, and events are coalesced until no new event has
+         * arrived for the given debounce period before only the changed files are read again.
+         *
+         * @param debounce how long to wait for more file-system events before reloading
+         * @return the built {@link ReloadableApplicationProperties} instance, close it to stop watching files.
+         */
+        default ReloadableApplicationProperties buildReloadable(Duration debounce) {
+            throw new UnsupportedOperationException();
+        }
+
         /**
          * Builds this builder by calling {@link #build()} to produce an {@link ApplicationProperties} instance which is
          * then assigned to the static singleton reference that can be retrieved by calling
@@ -316,23 +524,7 @@ public interface ApplicationProperties {
     }
 
     static String logObfuscatedProperties(Map<String, String> properties) {
-        final Map<String, String> obfuscatedProperties = properties.entrySet().stream().map(
-                entry -> {
-                    final String key = entry.getKey();
-                    final String value = entry.getValue();
-                    final boolean isSecret = key.contains("secret") || key.contains("token") || key.contains("password");
-                    if (isSecret) {
-                        if (value.length() > 10) {
-                            final String substring = value.substring(0, 2);
-                            return new AbstractMap.SimpleEntry<>(key, substring + "******");
-                        } else {
-                            return new AbstractMap.SimpleEntry<>(key, "******");
-                        }
-                    } else {
-                        return entry;
-                    }
-                }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        return obfuscatedProperties.toString();
+        return PropertyObfuscator.defaults().toString(properties);
     }
 }
 
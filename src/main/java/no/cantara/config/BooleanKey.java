@@ -0,0 +1,17 @@
+package no.cantara.config;
+
+/**
+ * A {@link PropertyKey} with primitive boolean accessors that follow the semantics of
+ * {@link ApplicationProperties#asBoolean(String)} and {@link ApplicationProperties#asBoolean(String, boolean)}.
+ */
+public interface BooleanKey extends PropertyKey<Boolean> {
+
+    boolean getBoolean();
+
+    boolean getBoolean(boolean defaultValue);
+
+    @Override
+    default Boolean get() {
+        return isPresent() ? getBoolean() : null;
+    }
+}
@@ -0,0 +1,384 @@
+package no.cantara.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Binds a sub-map of properties to a new instance of a POJO or a record. A property is bound to the field or record
+ * component with the same name, or with the same name when compared without case and without '.', '-' and '_'
+ * separators, e.g. {@code connect-timeout}, {@code connect.timeout} and {@code CONNECT_TIMEOUT} all bind to a field
+ * named {@code connectTimeout}. A property with exactly the name of the field takes precedence over relaxed matches.
+ * <p>
+ * POJOs need a no-arg constructor, and are bound through public setters named after the field, or directly to the
+ * field. Fields without a matching property keep the value set by the constructor. Records are bound through their
+ * canonical constructor, with null, zero or false for components without a matching property. Static and transient
+ * fields are ignored, and properties that do not match a field or component are ignored.
+ * <p>
+ * Supported types are String, the primitive types, their wrapper types, and enums, which are matched by constant name
+ * ignoring case. Values are parsed like {@link ApplicationProperties#asInt(String)} and the like do.
+ * <p>
+ * The constructor and setter handles, converters and names of each class are resolved once and cached, and so are
+ * the matches of the property names seen when binding, so binding many instances of the same class only costs the
+ * conversions.
+ */
+public final class ConfigBinder {
+
+    /*
+     * Class.isRecord() and java.lang.reflect.RecordComponent, present on JDK 16 and later, used through reflection to
+     * stay compatible with Java 8.
+     */
+    private static final Method IS_RECORD;
+    private static final Method GET_RECORD_COMPONENTS;
+    private static final Method COMPONENT_NAME;
+    private static final Method COMPONENT_TYPE;
+
+    static {
+        Method isRecord = null;
+        Method getRecordComponents = null;
+        Method componentName = null;
+        Method componentType = null;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            Class<?> recordComponentClass = Class.forName("java.lang.reflect.RecordComponent");
+            componentName = recordComponentClass.getMethod("getName");
+            componentType = recordComponentClass.getMethod("getType");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            isRecord = null;
+        }
+        IS_RECORD = isRecord;
+        GET_RECORD_COMPONENTS = getRecordComponents;
+        COMPONENT_NAME = componentName;
+        COMPONENT_TYPE = componentType;
+    }
+
+    private static final ClassValue<BindingPlan> plans = new ClassValue<BindingPlan>() {
+        @Override
+        protected BindingPlan computeValue(Class<?> type) {
+            return isRecord(type) ? BindingPlan.ofRecord(type) : BindingPlan.ofPojo(type);
+        }
+    };
+
+    private ConfigBinder() {
+    }
+
+    /**
+     * @param properties the properties
+     * @param prefix     the prefix of the properties to bind, as passed to {@link ApplicationProperties#subMap(String)}
+     * @param type       a POJO or record class
+     * @return a new instance of the class bound to the sub-map of the properties
+     */
+    public static <T> T bind(ApplicationProperties properties, String prefix, Class<T> type) {
+        return bind(properties.subMap(prefix), type);
+    }
+
+    /**
+     * @param properties the properties to bind, with names relative to the instance
+     * @param type       a POJO or record class
+     * @return a new instance of the class bound to the properties
+     */
+    public static <T> T bind(Map<String, String> properties, Class<T> type) {
+        return type.cast(plans.get(type).bind(properties));
+    }
+
+    private static boolean isRecord(Class<?> type) {
+        if (IS_RECORD == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_RECORD.invoke(type);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * The name without separators in lower case.
+     */
+    static String relaxed(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '.' && c != '-' && c != '_') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /*
+     * How to create and bind instances of one class.
+     */
+    private static final class BindingPlan {
+
+        private static final int MATCH_MEMO_LIMIT = 1024;
+        private static final int NO_MATCH = -1;
+
+        final Class<?> type;
+        final String[] names;
+        final Class<?>[] types;
+        final Function<String, ?>[] converters;
+        final Map<String, Integer> indexByName = new HashMap<>();
+        final Map<String, Integer> indexByRelaxedName = new HashMap<>();
+
+        /*
+         * For POJOs ()Object and a (Object,Object)void setter per property, for records (Object[])Object taking the
+         * arguments of the canonical constructor and no setters.
+         */
+        final MethodHandle constructor;
+        final MethodHandle[] setters;
+
+        /*
+         * Record arguments for components without a property.
+         */
+        final Object[] absentValues;
+
+        /*
+         * The match of each property name seen, as index << 1 | 1 for an exact match, index << 1 for a relaxed match,
+         * or NO_MATCH.
+         */
+        final ConcurrentHashMap<String, Integer> matchByPropertyName = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private BindingPlan(Class<?> type, List<String> names, List<Class<?>> types, MethodHandle constructor, MethodHandle[] setters) {
+            this.type = type;
+            this.names = names.toArray(new String[0]);
+            this.types = types.toArray(new Class<?>[0]);
+            this.converters = (Function<String, ?>[]) new Function<?, ?>[this.names.length];
+            this.absentValues = new Object[this.names.length];
+            for (int i = 0; i < this.names.length; i++) {
+                converters[i] = converterOf(this.types[i], type, this.names[i]);
+                absentValues[i] = absentValueOf(this.types[i]);
+                indexByName.put(this.names[i], i);
+                Integer other = indexByRelaxedName.put(relaxed(this.names[i]), i);
+                if (other != null) {
+                    throw new RuntimeException("Unable to bind " + type.getName() + ", the names " + this.names[other] + " and " + this.names[i] + " only differ by case or separators");
+                }
+            }
+            this.constructor = constructor;
+            this.setters = setters;
+        }
+
+        static BindingPlan ofPojo(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                Constructor<?> noArgConstructor;
+                try {
+                    noArgConstructor = type.getDeclaredConstructor();
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException("Unable to bind " + type.getName() + ", it has no no-arg constructor", e);
+                }
+                noArgConstructor.setAccessible(true);
+                MethodHandle constructor = lookup.unreflectConstructor(noArgConstructor).asType(MethodType.methodType(Object.class));
+
+                List<String> names = new ArrayList<>();
+                List<Class<?>> types = new ArrayList<>();
+                List<MethodHandle> setters = new ArrayList<>();
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                                || names.contains(field.getName())) {
+                            continue;
+                        }
+                        names.add(field.getName());
+                        types.add(field.getType());
+                        setters.add(setterOf(lookup, type, field).asType(MethodType.methodType(void.class, Object.class, Object.class)));
+                    }
+                }
+                return new BindingPlan(type, names, types, constructor, setters.toArray(new MethodHandle[0]));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Unable to bind " + type.getName(), e);
+            }
+        }
+
+        private static MethodHandle setterOf(MethodHandles.Lookup lookup, Class<?> type, Field field) throws IllegalAccessException {
+            String name = field.getName();
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            try {
+                Method setter = type.getMethod(setterName, field.getType());
+                setter.setAccessible(true); // public, but possibly declared by a class that is not
+                return lookup.unreflect(setter);
+            } catch (NoSuchMethodException e) {
+                if (Modifier.isFinal(field.getModifiers())) {
+                    throw new RuntimeException("Unable to bind " + type.getName() + ", the field " + name + " is final and has no setter");
+                }
+                field.setAccessible(true);
+                return lookup.unreflectSetter(field);
+            }
+        }
+
+        static BindingPlan ofRecord(Class<?> type) {
+            try {
+                Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+                List<String> names = new ArrayList<>();
+                List<Class<?>> types = new ArrayList<>();
+                for (Object component : components) {
+                    names.add((String) COMPONENT_NAME.invoke(component));
+                    types.add((Class<?>) COMPONENT_TYPE.invoke(component));
+                }
+                Constructor<?> canonical = type.getDeclaredConstructor(types.toArray(new Class<?>[0]));
+                canonical.setAccessible(true);
+                MethodHandle constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asType(MethodType.genericMethodType(components.length))
+                        .asSpreader(Object[].class, components.length);
+                return new BindingPlan(type, names, types, constructor, null);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Unable to bind " + type.getName(), e);
+            }
+        }
+
+        Object bind(Map<String, String> properties) {
+            String[] values = new String[names.length];
+            String[] keys = new String[names.length];
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                int match = matchOf(entry.getKey());
+                if (match == NO_MATCH) {
+                    continue;
+                }
+                int index = match >>> 1;
+                if (values[index] == null || (match & 1) == 1) {
+                    values[index] = entry.getValue();
+                    keys[index] = entry.getKey();
+                }
+            }
+            try {
+                if (setters == null) {
+                    Object[] arguments = new Object[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        arguments[i] = values[i] == null ? absentValues[i] : convert(i, keys[i], values[i]);
+                    }
+                    return (Object) constructor.invokeExact(arguments);
+                }
+                Object instance = (Object) constructor.invokeExact();
+                for (int i = 0; i < names.length; i++) {
+                    if (values[i] != null) {
+                        setters[i].invokeExact(instance, convert(i, keys[i], values[i]));
+                    }
+                }
+                return instance;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+
+        private int matchOf(String propertyName) {
+            Integer match = matchByPropertyName.get(propertyName);
+            if (match == null) {
+                Integer index = indexByName.get(propertyName);
+                if (index != null) {
+                    match = index << 1 | 1;
+                } else {
+                    index = indexByRelaxedName.get(relaxed(propertyName));
+                    match = index != null ? index << 1 : NO_MATCH;
+                }
+                if (matchByPropertyName.size() < MATCH_MEMO_LIMIT) {
+                    matchByPropertyName.put(propertyName, match);
+                }
+            }
+            return match;
+        }
+
+        private Object convert(int index, String key, String value) {
+            try {
+                return converters[index].apply(value);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Unable to bind property '" + key + "' with value '" + value + "' to " + type.getName() + "." + names[index], e);
+            }
+        }
+    }
+
+    private static Function<String, ?> converterOf(Class<?> type, Class<?> owner, String name) {
+        if (type == String.class) {
+            return Function.identity();
+        }
+        if (type == int.class || type == Integer.class) {
+            return Integer::valueOf;
+        }
+        if (type == long.class || type == Long.class) {
+            return Long::valueOf;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean::valueOf;
+        }
+        if (type == double.class || type == Double.class) {
+            return Double::valueOf;
+        }
+        if (type == float.class || type == Float.class) {
+            return Float::valueOf;
+        }
+        if (type == short.class || type == Short.class) {
+            return Short::valueOf;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return Byte::valueOf;
+        }
+        if (type == char.class || type == Character.class) {
+            return value -> {
+                if (value.length() != 1) {
+                    throw new IllegalArgumentException("Not a single character");
+                }
+                return value.charAt(0);
+            };
+        }
+        if (type.isEnum()) {
+            Map<String, Object> constantByName = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constantByName.put(((Enum<?>) constant).name().toLowerCase(Locale.ROOT), constant);
+            }
+            return value -> {
+                Object constant = constantByName.get(value.toLowerCase(Locale.ROOT));
+                if (constant == null) {
+                    throw new IllegalArgumentException("No constant " + value + " in " + type.getName());
+                }
+                return constant;
+            };
+        }
+        throw new RuntimeException("Unable to bind " + owner.getName() + ", the type " + type.getName() + " of " + name + " is not supported");
+    }
+
+    private static Object absentValueOf(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package no.cantara.config;
 
+import java.io.IOException;
 import java.util.List;
 
 public class DebugUtils {
@@ -11,6 +12,28 @@ public class DebugUtils {
     }
 
     public static void debugSources(List<ApplicationProperties.Source> sources, boolean debugOverriddenSources, StringBuilder sb) {
+        try {
+            debugSources(sources, debugOverriddenSources, (Appendable) sb);
+        } catch (IOException e) {
+            throw new RuntimeException(e); // never thrown by StringBuilder
+        }
+    }
+
+    public static String debugSource(ApplicationProperties.Source source) {
+        StringBuilder sb = new StringBuilder();
+        debugSource(source, sb);
+        return sb.toString();
+    }
+
+    public static void debugSource(ApplicationProperties.Source source, StringBuilder sb) {
+        try {
+            debugSource(source, (Appendable) sb);
+        } catch (IOException e) {
+            throw new RuntimeException(e); // never thrown by StringBuilder
+        }
+    }
+
+    public static void debugSources(List<ApplicationProperties.Source> sources, boolean debugOverriddenSources, Appendable out) throws IOException {
         if (sources.isEmpty()) {
             return;
         }
@@ -19,27 +42,21 @@ public class DebugUtils {
             n = sources.size();
         }
         for (int i = 0; i < n; i++) {
-            sb.append("- ");
+            out.append("- ");
             for (int j = 0; j < i * 4; j++) {
-                sb.append(" ");
+                out.append(' ');
             }
             if (i == 0) {
-                sb.append("effective: ");
+                out.append("effective: ");
             } else {
-                sb.append("other: ");
+                out.append("other: ");
             }
-            debugSource(sources.get(i), sb);
+            debugSource(sources.get(i), out);
         }
     }
 
-    public static String debugSource(ApplicationProperties.Source source) {
-        StringBuilder sb = new StringBuilder();
-        debugSource(source, sb);
-        return sb.toString();
-    }
-
-    public static void debugSource(ApplicationProperties.Source source, StringBuilder sb) {
-        sb.append(source.propertyName()).append("='").append(source.propertyValue())
+    public static void debugSource(ApplicationProperties.Source source, Appendable out) throws IOException {
+        out.append(source.propertyName()).append("='").append(source.propertyValue())
                 .append("', ").append(source.description())
                 .append(" at ").append(source.stackTraceElement().getCodeLocation())
                 .append("\n");
@@ -1,22 +1,148 @@
 package no.cantara.config;
 
+import java.util.Locale;
+
+/**
+ * Maps between property names and environment-variable names. A property name is upper-cased and '_' is escaped as
+ * "_u_", '.' as '_' and '-' as "_d_". Unescaping reverses this and lower-cases the result.
+ * <p>
+ * Both directions are implemented by scanning characters, without regular expressions. Results are memoized in small
+ * direct-mapped tables, as the same names are escaped and unescaped repeatedly when resolving environment-variables.
+ */
 public class EnvironmentVariableEscaping {
 
+    private static final int MEMO_SIZE = 256; // power of two
+
+    private static final Memo[] unescaped = new Memo[MEMO_SIZE];
+    private static final Memo[] escaped = new Memo[MEMO_SIZE];
+
+    /*
+     * Immutable, so entries can safely be published to other threads through a plain array write.
+     */
+    private static final class Memo {
+        final String input;
+        final Locale locale;
+        final String output;
+
+        Memo(String input, Locale locale, String output) {
+            this.input = input;
+            this.locale = locale;
+            this.output = output;
+        }
+    }
+
     public static String unescape(String envVarKey) {
-        String propKey = envVarKey;
-        propKey = propKey.replaceAll("_d_", "-");
-        propKey = propKey.replaceAll("(?<!_u)_(?!u_)", "."); // a underscore, not preceeded by _u (negative lookbehind), and not followed by u_ (negative lookahead)
-        propKey = propKey.replaceAll("_u_", "_");
-        propKey = propKey.toLowerCase();
+        Locale locale = Locale.getDefault();
+        int i = memoIndex(envVarKey);
+        Memo memo = unescaped[i];
+        if (memo != null && memo.locale == locale && memo.input.equals(envVarKey)) {
+            return memo.output;
+        }
+        String propKey = doUnescape(envVarKey);
+        unescaped[i] = new Memo(envVarKey, locale, propKey);
         return propKey;
     }
 
     public static String escape(String propKey) {
-        String envVarKey = propKey;
-        envVarKey = envVarKey.toUpperCase();
-        envVarKey = envVarKey.replaceAll("[_]", "_u_");
-        envVarKey = envVarKey.replaceAll("[.]", "_");
-        envVarKey = envVarKey.replaceAll("[-]", "_d_");
+        Locale locale = Locale.getDefault();
+        int i = memoIndex(propKey);
+        Memo memo = escaped[i];
+        if (memo != null && memo.locale == locale && memo.input.equals(propKey)) {
+            return memo.output;
+        }
+        String envVarKey = doEscape(propKey);
+        escaped[i] = new Memo(propKey, locale, envVarKey);
         return envVarKey;
     }
+
+    private static int memoIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (MEMO_SIZE - 1);
+    }
+
+    /*
+     * Equivalent to, in order:
+     *   replaceAll("_d_", "-")
+     *   replaceAll("(?<!_u)_(?!u_)", ".")   an underscore, not preceded by _u and not followed by u_
+     *   replaceAll("_u_", "_")
+     *   toLowerCase()
+     * Each replaceAll matches against the result of the previous one, and the lookarounds of the second one see its
+     * input, not its output.
+     */
+    private static String doUnescape(String envVarKey) {
+        int length = envVarKey.length();
+        char[] buf = new char[length];
+
+        // "_d_" -> "-"
+        int n = 0;
+        for (int i = 0; i < length; ) {
+            char c = envVarKey.charAt(i);
+            if (c == '_' && i + 2 < length && envVarKey.charAt(i + 1) == 'd' && envVarKey.charAt(i + 2) == '_') {
+                buf[n++] = '-';
+                i += 3;
+            } else {
+                buf[n++] = c;
+                i++;
+            }
+        }
+
+        // unprotected '_' -> '.', decided by dotted() from the unmodified buffer, then "_u_" -> "_"
+        char[] result = new char[n];
+        int m = 0;
+        for (int j = 0; j < n; ) {
+            char c = dotted(buf, n, j);
+            if (c == '_' && j + 2 < n && dotted(buf, n, j + 1) == 'u' && dotted(buf, n, j + 2) == '_') {
+                result[m++] = '_';
+                j += 3;
+            } else {
+                result[m++] = c;
+                j++;
+            }
+        }
+        String propKey = new String(result, 0, m);
+        return propKey.toLowerCase();
+    }
+
+    /*
+     * The character at position j after replacing unprotected underscores with '.'.
+     */
+    private static char dotted(char[] buf, int n, int j) {
+        char c = buf[j];
+        if (c != '_') {
+            return c;
+        }
+        boolean precededByU = j >= 2 && buf[j - 2] == '_' && buf[j - 1] == 'u';
+        boolean followedByU = j + 2 < n && buf[j + 1] == 'u' && buf[j + 2] == '_';
+        return precededByU || followedByU ? '_' : '.';
+    }
+
+    /*
+     * Equivalent to toUpperCase() followed by replacing '_' with "_u_", '.' with '_' and '-' with "_d_".
+     */
+    private static String doEscape(String propKey) {
+        String upper = propKey.toUpperCase();
+        int length = upper.length();
+        StringBuilder sb = null;
+        for (int i = 0; i < length; i++) {
+            char c = upper.charAt(i);
+            if (c != '_' && c != '.' && c != '-') {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(length + 8);
+                sb.append(upper, 0, i);
+            }
+            if (c == '_') {
+                sb.append("_u_");
+            } else if (c == '.') {
+                sb.append('_');
+            } else {
+                sb.append("_d_");
+            }
+        }
+        return sb == null ? upper : sb.toString();
+    }
 }
@@ -0,0 +1,22 @@
+package no.cantara.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose static String constants are expected property keys. The annotation processor in the
+ * property-config-processor artifact generates a {@link PropertyKeyIndex} named after the class with the suffix
+ * "Keys", e.g. {@code MainPropertiesKeys.INSTANCE} for {@code MainProperties}. Nested classes are named after all
+ * enclosing classes, joined by underscores.
+ * <p>
+ * All static String fields must be compile-time constants, the processor reports an error otherwise. Fields with
+ * empty values are ignored, like {@link ApplicationProperties.Builder#expectedProperties(Class...)} does.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ExpectedProperties {
+}
@@ -0,0 +1,17 @@
+package no.cantara.config;
+
+/**
+ * A {@link PropertyKey} with primitive int accessors that follow the semantics of
+ * {@link ApplicationProperties#asInt(String)} and {@link ApplicationProperties#asInt(String, int)}.
+ */
+public interface IntKey extends PropertyKey<Integer> {
+
+    int getInt();
+
+    int getInt(int defaultValue);
+
+    @Override
+    default Integer get() {
+        return isPresent() ? getInt() : null;
+    }
+}
@@ -0,0 +1,102 @@
+package no.cantara.config;
+
+/**
+ * Property handles that simply read by name on every call, used by implementations that cannot pre-resolve names.
+ */
+class NameBasedPropertyKeys {
+
+    static class NameBasedStringKey implements PropertyKey<String> {
+        final ApplicationProperties properties;
+        final String name;
+
+        NameBasedStringKey(ApplicationProperties properties, String name) {
+            this.properties = properties;
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String get() {
+            return properties.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class NameBasedIntKey implements IntKey {
+        final ApplicationProperties properties;
+        final String name;
+
+        NameBasedIntKey(ApplicationProperties properties, String name) {
+            this.properties = properties;
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return properties.get(name) != null;
+        }
+
+        @Override
+        public int getInt() {
+            return properties.asInt(name);
+        }
+
+        @Override
+        public int getInt(int defaultValue) {
+            return properties.asInt(name, defaultValue);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class NameBasedBooleanKey implements BooleanKey {
+        final ApplicationProperties properties;
+        final String name;
+
+        NameBasedBooleanKey(ApplicationProperties properties, String name) {
+            this.properties = properties;
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return properties.get(name) != null;
+        }
+
+        @Override
+        public boolean getBoolean() {
+            return properties.asBoolean(name);
+        }
+
+        @Override
+        public boolean getBoolean(boolean defaultValue) {
+            return properties.asBoolean(name, defaultValue);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
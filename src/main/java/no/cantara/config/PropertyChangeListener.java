@@ -0,0 +1,25 @@
+package no.cantara.config;
+
+/**
+ * Receives the changes between published snapshots of an {@link ApplicationProperties} instance, see
+ * {@link ApplicationProperties#addChangeListener(PropertyChangeListener)}.
+ */
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    /**
+     * Called once for every published snapshot that changes properties this listener is subscribed to. Calls are made
+     * from a dispatcher thread, never from the thread that publishes, and in the order snapshots were published.
+     *
+     * @param changes the changes, never empty
+     */
+    void propertiesChanged(PropertyChanges changes);
+
+    interface Registration extends AutoCloseable {
+        /**
+         * Stop delivering changes to the listener.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,123 @@
+package no.cantara.config;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The differences between two snapshots of properties, ordered by property name.
+ */
+public final class PropertyChanges {
+
+    public enum Kind {
+        ADDED, REMOVED, CHANGED
+    }
+
+    public static final class Change {
+        private final String name;
+        private final String oldValue;
+        private final String newValue;
+        private final Kind kind;
+
+        public Change(String name, String oldValue, String newValue, Kind kind) {
+            this.name = name;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.kind = Objects.requireNonNull(kind);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the previous value, or null if the property was added
+         */
+        public String oldValue() {
+            return oldValue;
+        }
+
+        /**
+         * @return the new value, or null if the property was removed
+         */
+        public String newValue() {
+            return newValue;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Change that = (Change) o;
+            return Objects.equals(name, that.name)
+                    && Objects.equals(oldValue, that.oldValue)
+                    && Objects.equals(newValue, that.newValue)
+                    && kind == that.kind;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, oldValue, newValue, kind);
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name;
+        }
+    }
+
+    private final List<Change> changes;
+    private final Set<String> added = new LinkedHashSet<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    private final Set<String> changed = new LinkedHashSet<>();
+
+    /**
+     * @param changes the changes, ordered by property name
+     */
+    public PropertyChanges(List<Change> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+        for (Change change : changes) {
+            switch (change.kind) {
+                case ADDED:
+                    added.add(change.name);
+                    break;
+                case REMOVED:
+                    removed.add(change.name);
+                    break;
+                default:
+                    changed.add(change.name);
+            }
+        }
+    }
+
+    public List<Change> changes() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public Set<String> added() {
+        return Collections.unmodifiableSet(added);
+    }
+
+    public Set<String> removed() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    public Set<String> changed() {
+        return Collections.unmodifiableSet(changed);
+    }
+
+    @Override
+    public String toString() {
+        return changes.toString();
+    }
+}
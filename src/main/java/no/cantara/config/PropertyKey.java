@@ -0,0 +1,37 @@
+package no.cantara.config;
+
+/**
+ * A handle to a single property that has been resolved once against an {@link ApplicationProperties} instance.
+ * Reading through a handle gives the same result as reading by name from the instance that created it, but
+ * implementations may pre-resolve the name so that repeated reads avoid hashing and comparing the property name. Keep
+ * handles in fields and reuse them on hot code paths.
+ *
+ * @param <T> the type of the property value
+ * @see ApplicationProperties#key(String)
+ * @see ApplicationProperties#intKey(String)
+ * @see ApplicationProperties#booleanKey(String)
+ */
+public interface PropertyKey<T> {
+
+    /**
+     * @return the name of the property
+     */
+    String name();
+
+    /**
+     * @return the effective value, or null if the property is not present
+     */
+    T get();
+
+    default T get(T defaultValue) {
+        T value = get();
+        if (value != null) {
+            return value;
+        }
+        return defaultValue;
+    }
+
+    default boolean isPresent() {
+        return get() != null;
+    }
+}
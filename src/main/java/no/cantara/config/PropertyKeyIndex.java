@@ -0,0 +1,17 @@
+package no.cantara.config;
+
+import java.util.List;
+
+/**
+ * The property keys declared by a class of constants, for {@link ApplicationProperties.Builder#expectedProperties(PropertyKeyIndex...)}.
+ * Implementations are generated at compile time for classes annotated with {@link ExpectedProperties} by the
+ * annotation processor in the property-config-processor artifact, so that expected properties can be registered
+ * without reflection.
+ */
+public interface PropertyKeyIndex {
+
+    /**
+     * @return the non-empty property keys, without duplicates, in declaration order
+     */
+    List<String> keys();
+}
@@ -0,0 +1,283 @@
+package no.cantara.config;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which properties hold secrets, and obfuscates their values for logging. A property is secret if its name
+ * contains any of the configured keywords, or has a match for any of the configured patterns. Values of secret
+ * properties are replaced by "******", keeping the first two characters of values longer than 10 characters.
+ * <p>
+ * Keywords are compiled into one Aho-Corasick automaton, so a name is scanned once regardless of the number of
+ * keywords. Patterns without flags, groups or back-references are combined into one regular expression, and patterns
+ * are only evaluated when no keyword matches.
+ * Instances are immutable and thread-safe.
+ */
+public final class PropertyObfuscator {
+
+    private static final String MASK = "******";
+
+    private static final List<String> DEFAULT_KEYWORDS = Collections.unmodifiableList(Arrays.asList("secret", "token", "password"));
+
+    private static final PropertyObfuscator DEFAULTS = new PropertyObfuscator(DEFAULT_KEYWORDS, Collections.emptyList());
+
+    /**
+     * @return an obfuscator for names containing "secret", "token" or "password"
+     */
+    public static PropertyObfuscator defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param keywords words that make a property secret when its name contains them
+     * @param patterns patterns that make a property secret when they match any part of its name
+     * @return an obfuscator for the given keywords and patterns
+     */
+    public static PropertyObfuscator of(Collection<String> keywords, Collection<Pattern> patterns) {
+        return new PropertyObfuscator(keywords, patterns);
+    }
+
+    private final List<String> keywords;
+    private final List<Pattern> patterns;
+
+    /*
+     * Aho-Corasick automaton with failure links resolved into a complete transition table. Characters that occur in
+     * keywords are mapped to symbols 1..n, all other characters to symbol 0.
+     */
+    private final char[] alphabet; // sorted characters of all keywords, symbol is index + 1
+    private final int[] asciiSymbols = new int[128];
+    private final int symbols;
+    private final int[] transitions; // state * symbols + symbol -> state
+    private final boolean[] accepting;
+
+    /*
+     * Patterns combined into one alternation, or null if there are none, and patterns matched one by one. Patterns
+     * compiled with flags are kept apart, as an alternation can only have the flags of one pattern, and so are
+     * patterns with groups or back-references, as group names and numbers would clash or shift in an alternation.
+     */
+    private final Pattern combinedPattern;
+    private final Pattern[] separatePatterns;
+
+    private PropertyObfuscator(Collection<String> keywords, Collection<Pattern> patterns) {
+        this.keywords = Collections.unmodifiableList(new ArrayList<>(keywords));
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+
+        StringBuilder chars = new StringBuilder();
+        int maxStates = 1;
+        for (String keyword : this.keywords) {
+            Objects.requireNonNull(keyword);
+            chars.append(keyword);
+            maxStates += keyword.length();
+        }
+        char[] all = chars.toString().toCharArray();
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        this.alphabet = Arrays.copyOf(all, distinct);
+        this.symbols = distinct + 1;
+        for (int i = 0; i < distinct; i++) {
+            if (alphabet[i] < 128) {
+                asciiSymbols[alphabet[i]] = i + 1;
+            }
+        }
+
+        // trie, 0 in a transition means missing (the root is never a target of a trie edge)
+        int[] trie = new int[maxStates * symbols];
+        boolean[] accepting = new boolean[maxStates];
+        int states = 1;
+        for (String keyword : this.keywords) {
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbolOf(keyword.charAt(i));
+                int next = trie[state * symbols + symbol];
+                if (next == 0) {
+                    next = states++;
+                    trie[state * symbols + symbol] = next;
+                }
+                state = next;
+            }
+            accepting[state] = true;
+        }
+
+        // breadth-first over the trie, resolving failure links into transitions
+        int[] transitions = new int[states * symbols];
+        int[] failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            int next = trie[symbol];
+            transitions[symbol] = next;
+            if (next != 0) {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] |= accepting[failure[state]];
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                int next = trie[state * symbols + symbol];
+                if (next != 0) {
+                    failure[next] = transitions[failure[state] * symbols + symbol];
+                    transitions[state * symbols + symbol] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * symbols + symbol] = transitions[failure[state] * symbols + symbol];
+                }
+            }
+        }
+        this.transitions = transitions;
+        this.accepting = Arrays.copyOf(accepting, states);
+
+        StringBuilder regex = new StringBuilder();
+        List<Pattern> separatePatterns = new ArrayList<>();
+        for (Pattern pattern : this.patterns) {
+            if (pattern.flags() != 0 || pattern.matcher("").groupCount() > 0 || hasBackReference(pattern.pattern())) {
+                separatePatterns.add(pattern);
+                continue;
+            }
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(pattern.pattern()).append(')');
+        }
+        this.combinedPattern = regex.length() == 0 ? null : Pattern.compile(regex.toString());
+        this.separatePatterns = separatePatterns.toArray(new Pattern[0]);
+    }
+
+    /*
+     * Whether the regular expression has a numbered or named back-reference outside of quoted sections.
+     */
+    private static boolean hasBackReference(String regex) {
+        for (int i = 0; i < regex.length() - 1; i++) {
+            if (regex.charAt(i) != '\\') {
+                continue;
+            }
+            char next = regex.charAt(i + 1);
+            if ((next >= '1' && next <= '9') || next == 'k') {
+                return true;
+            }
+            if (next == 'Q') {
+                int end = regex.indexOf("\\E", i + 2);
+                if (end < 0) {
+                    return false;
+                }
+                i = end;
+            }
+            i++; // skip the escaped character
+        }
+        return false;
+    }
+
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        int i = Arrays.binarySearch(alphabet, c);
+        return i < 0 ? 0 : i + 1;
+    }
+
+    /**
+     * @return a new obfuscator with the keywords of this one and the given ones
+     */
+    public PropertyObfuscator withKeywords(String... keywords) {
+        List<String> combined = new ArrayList<>(this.keywords);
+        combined.addAll(Arrays.asList(keywords));
+        return new PropertyObfuscator(combined, patterns);
+    }
+
+    /**
+     * @return a new obfuscator with the patterns of this one and the given ones
+     */
+    public PropertyObfuscator withPatterns(Pattern... patterns) {
+        List<Pattern> combined = new ArrayList<>(this.patterns);
+        combined.addAll(Arrays.asList(patterns));
+        return new PropertyObfuscator(keywords, combined);
+    }
+
+    public List<String> keywords() {
+        return keywords;
+    }
+
+    public List<Pattern> patterns() {
+        return patterns;
+    }
+
+    /**
+     * @param name the name of a property
+     * @return whether the property holds a secret
+     */
+    public boolean isSecret(String name) {
+        int state = 0;
+        if (accepting[state]) {
+            return true;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            state = transitions[state * symbols + symbolOf(name.charAt(i))];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        if (combinedPattern != null && combinedPattern.matcher(name).find()) {
+            return true;
+        }
+        for (Pattern pattern : separatePatterns) {
+            if (pattern.matcher(name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value, obfuscated if the property holds a secret
+     */
+    public String obfuscate(String name, String value) {
+        if (value == null || !isSecret(name)) {
+            return value;
+        }
+        if (value.length() > 10) {
+            return value.substring(0, 2) + MASK;
+        }
+        return MASK;
+    }
+
+    /**
+     * @return a copy of the properties with obfuscated values, in the iteration order of the given map
+     */
+    public Map<String, String> obfuscatedCopy(Map<String, String> properties) {
+        Map<String, String> copy = new LinkedHashMap<>(Math.max(16, (int) (properties.size() / .75f) + 1));
+        properties.forEach((name, value) -> copy.put(name, obfuscate(name, value)));
+        return copy;
+    }
+
+    /**
+     * @return the properties with obfuscated values formatted like {@link java.util.AbstractMap#toString()}, in the
+     * iteration order of the given map
+     */
+    public String toString(Map<String, String> properties) {
+        StringBuilder sb = new StringBuilder(properties.size() * 32 + 2);
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(entry.getKey()).append('=').append(obfuscate(entry.getKey(), entry.getValue()));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -1,42 +1,345 @@
 package no.cantara.config;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Finds {@link ProviderFactory} implementations registered with {@link ServiceLoader}, by alias, simple or qualified
+ * name of the factory class, or simple or qualified name of the provider class. If several factories match a name, the
+ * first one found by the service-loader is used.
+ * <p>
+ * Factories are loaded once per factory interface and class-loader, and are indexed by all their names. The thread
+ * context class-loader is used, like {@link ServiceLoader#load(Class)} does. Factories are shared between lookups, so
+ * they must be thread-safe. Call {@link #invalidate()} to load factories again, e.g. after class-loaders have changed.
+ * <p>
+ * The cache is attached to the factory interface and references class-loaders weakly, so a context class-loader that
+ * defines none of the factories can be collected once it is otherwise unreachable. The factories of a class-loader are
+ * softly referenced, like {@link java.util.ResourceBundle} caches bundles. A class-loader that defines factories is
+ * kept reachable by them until the soft reference is cleared when memory is low, or until
+ * {@link #invalidate(Class)} is called for the factory interface. Factories may be loaded again after being cleared.
+ * <p>
+ * Factory classes annotated with {@link ProviderMetadata} are indexed without being initialized, and are only
+ * instantiated when they are looked up. On JDK 9 and later the service-loader lists factory classes without
+ * instantiating them, on Java 8 the provider-configuration files in META-INF/services are read directly.
+ */
 public class ProviderLoader {
 
-    public static <R, F extends ProviderFactory<R>> F factoryOf(String providerIdOrClassname, Class<F> abstractFactoryClazz) {
-        ServiceLoader<F> loader = ServiceLoader.load(abstractFactoryClazz);
-        for (F factory : loader) {
-            String providerId = factory.alias();
-            Class<?> providerClass = factory.providerClass();
-            Class<? extends ProviderFactory> concreteFactoryClass = factory.getClass();
-            if (providerIdOrClassname.equals(providerId)
-                    || providerIdOrClassname.equals(concreteFactoryClass.getName())
-                    || providerIdOrClassname.equals(concreteFactoryClass.getSimpleName())
-                    || providerIdOrClassname.equals(providerClass.getName())
-                    || providerIdOrClassname.equals(providerClass.getSimpleName())
-            ) {
-                return factory;
+    private static final String SERVICES = "META-INF/services/";
+
+    /*
+     * ServiceLoader.stream() and ServiceLoader.Provider, present on JDK 9 and later, used through reflection to stay
+     * compatible with Java 8.
+     */
+    private static final Method SERVICE_LOADER_STREAM;
+    private static final Method PROVIDER_TYPE;
+    private static final Method PROVIDER_GET;
+
+    static {
+        Method stream = null;
+        Method type = null;
+        Method get = null;
+        try {
+            stream = ServiceLoader.class.getMethod("stream");
+            Class<?> providerClass = Class.forName("java.util.ServiceLoader$Provider");
+            type = providerClass.getMethod("type");
+            get = providerClass.getMethod("get");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            stream = null;
+        }
+        SERVICE_LOADER_STREAM = stream;
+        PROVIDER_TYPE = type;
+        PROVIDER_GET = get;
+    }
+
+    /*
+     * Factories by class-loader, per factory interface.
+     */
+    private static final ClassValue<Indexes> indexes = new ClassValue<Indexes>() {
+        @Override
+        protected Indexes computeValue(Class<?> type) {
+            return new Indexes();
+        }
+    };
+
+    /*
+     * The indexes of one factory interface. The factories reference their class-loader, so they are only softly
+     * referenced to let the weak key be cleared when memory is low. Lookups almost always use the same class-loader,
+     * so the most recently used index is also kept in a volatile field, read without locking.
+     */
+    private static final class Indexes {
+        final Map<ClassLoader, SoftReference<Index>> indexByClassLoader = Collections.synchronizedMap(new WeakHashMap<>());
+        volatile MostRecent mostRecent;
+    }
+
+    /*
+     * The most recently used index and its class-loader, referenced like the entries of indexByClassLoader.
+     */
+    private static final class MostRecent {
+        final WeakReference<ClassLoader> classLoader;
+        final SoftReference<Index> index;
+
+        MostRecent(ClassLoader classLoader, SoftReference<Index> index) {
+            this.classLoader = new WeakReference<>(classLoader);
+            this.index = index;
+        }
+    }
+
+    /*
+     * Incremented by invalidate(), indexes loaded before are stale.
+     */
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    /*
+     * Factory by name, for one factory interface and class-loader.
+     */
+    private static final class Index {
+        final int generation;
+        final Map<String, FactoryEntry> factoryByName;
+
+        Index(int generation, Map<String, FactoryEntry> factoryByName) {
+            this.generation = generation;
+            this.factoryByName = factoryByName;
+        }
+    }
+
+    /*
+     * A factory class, and the factory once it has been instantiated.
+     */
+    private static final class FactoryEntry {
+        final Class<?> factoryClass;
+
+        /*
+         * The ServiceLoader.Provider that instantiates the factory, or null to use the public no-arg constructor.
+         */
+        private final Object provider;
+        private volatile ProviderFactory<?> factory;
+
+        FactoryEntry(Class<?> factoryClass, Object provider) {
+            this.factoryClass = factoryClass;
+            this.provider = provider;
+        }
+
+        ProviderFactory<?> factory() {
+            ProviderFactory<?> result = factory;
+            if (result == null) {
+                synchronized (this) {
+                    result = factory;
+                    if (result == null) {
+                        result = instantiate();
+                        factory = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private ProviderFactory<?> instantiate() {
+            try {
+                if (provider != null) {
+                    return (ProviderFactory<?>) PROVIDER_GET.invoke(provider);
+                }
+                return (ProviderFactory<?>) factoryClass.getConstructor().newInstance();
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new ServiceConfigurationError("Provider " + factoryClass.getName() + " could not be instantiated", e);
             }
         }
-        throw new RuntimeException("No " + abstractFactoryClazz.getSimpleName() + " provider found for providerIdOrClassname: " + providerIdOrClassname);
+    }
+
+    public static <R, F extends ProviderFactory<R>> F factoryOf(String providerIdOrClassname, Class<F> abstractFactoryClazz) {
+        FactoryEntry entry = indexOf(abstractFactoryClazz).get(providerIdOrClassname);
+        if (entry == null) {
+            throw new RuntimeException("No " + abstractFactoryClazz.getSimpleName() + " provider found for providerIdOrClassname: " + providerIdOrClassname);
+        }
+        return abstractFactoryClazz.cast(entry.factory());
     }
 
     public static <R, T extends ProviderFactory<R>> R configure(ApplicationProperties applicationProperties, String providerIdOrClassname, Class<T> clazz) {
-        ServiceLoader<T> loader = ServiceLoader.load(clazz);
-        for (T factory : loader) {
-            String providerId = factory.alias();
-            Class<?> providerClass = factory.providerClass();
-            Class<? extends ProviderFactory> concreteFactoryClass = factory.getClass();
-            if (providerIdOrClassname.equals(providerId)
-                    || providerIdOrClassname.equals(concreteFactoryClass.getName())
-                    || providerIdOrClassname.equals(concreteFactoryClass.getSimpleName())
-                    || providerIdOrClassname.equals(providerClass.getName())
-                    || providerIdOrClassname.equals(providerClass.getSimpleName())
-            ) {
-                return factory.create(applicationProperties);
-            }
-        }
-        throw new RuntimeException("No " + clazz.getSimpleName() + " provider found for providerIdOrClassname: " + providerIdOrClassname);
+        FactoryEntry entry = indexOf(clazz).get(providerIdOrClassname);
+        if (entry == null) {
+            throw new RuntimeException("No " + clazz.getSimpleName() + " provider found for providerIdOrClassname: " + providerIdOrClassname);
+        }
+        return clazz.cast(entry.factory()).create(applicationProperties);
+    }
+
+    /**
+     * Forget all loaded factories, they are loaded again by the next lookup.
+     */
+    public static void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Forget the loaded factories of one factory interface, they are loaded again by the next lookup.
+     *
+     * @param abstractFactoryClazz the factory interface
+     */
+    public static void invalidate(Class<? extends ProviderFactory<?>> abstractFactoryClazz) {
+        indexes.remove(abstractFactoryClazz);
+    }
+
+    private static Map<String, FactoryEntry> indexOf(Class<? extends ProviderFactory<?>> abstractFactoryClazz) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        Indexes indexesOfInterface = indexes.get(abstractFactoryClazz);
+        int current = generation.get();
+        MostRecent mostRecent = indexesOfInterface.mostRecent;
+        if (mostRecent != null && mostRecent.classLoader.get() == classLoader) {
+            Index index = current(mostRecent.index, current);
+            if (index != null) {
+                return index.factoryByName;
+            }
+        }
+        Map<ClassLoader, SoftReference<Index>> indexByClassLoader = indexesOfInterface.indexByClassLoader;
+        SoftReference<Index> reference = indexByClassLoader.get(classLoader);
+        Index index = current(reference, current);
+        if (index == null) {
+            // built outside of the lock, as factories may use the provider-loader while being loaded
+            Index loaded = new Index(current, load(abstractFactoryClazz, classLoader));
+            synchronized (indexByClassLoader) {
+                reference = indexByClassLoader.get(classLoader);
+                index = current(reference, current);
+                if (index == null) {
+                    reference = new SoftReference<>(loaded);
+                    indexByClassLoader.put(classLoader, reference);
+                    index = loaded;
+                }
+            }
+        }
+        indexesOfInterface.mostRecent = new MostRecent(classLoader, reference);
+        return index.factoryByName;
+    }
+
+    private static Index current(SoftReference<Index> reference, int generation) {
+        Index index = reference == null ? null : reference.get();
+        return index != null && index.generation == generation ? index : null;
+    }
+
+    private static Map<String, FactoryEntry> load(Class<? extends ProviderFactory<?>> abstractFactoryClazz, ClassLoader classLoader) {
+        Map<String, FactoryEntry> index = new HashMap<>();
+        for (FactoryEntry entry : factoryEntries(abstractFactoryClazz, classLoader)) {
+            Class<?> factoryClass = entry.factoryClass;
+            ProviderMetadata metadata = factoryClass.getAnnotation(ProviderMetadata.class);
+            String alias;
+            Class<?> providerClass;
+            if (metadata != null) {
+                alias = metadata.alias();
+                providerClass = metadata.providerClass();
+            } else {
+                ProviderFactory<?> factory = entry.factory();
+                alias = factory.alias();
+                providerClass = factory.providerClass();
+            }
+            if (alias != null) {
+                index.putIfAbsent(alias, entry);
+            }
+            index.putIfAbsent(factoryClass.getName(), entry);
+            index.putIfAbsent(factoryClass.getSimpleName(), entry);
+            index.putIfAbsent(providerClass.getName(), entry);
+            index.putIfAbsent(providerClass.getSimpleName(), entry);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /*
+     * Entries for the factory classes registered for the interface in service-loader order, with factory classes
+     * loaded but not initialized.
+     */
+    private static List<FactoryEntry> factoryEntries(Class<? extends ProviderFactory<?>> abstractFactoryClazz, ClassLoader classLoader) {
+        List<FactoryEntry> entries = new ArrayList<>();
+        if (SERVICE_LOADER_STREAM != null) {
+            try {
+                Stream<?> providers = (Stream<?>) SERVICE_LOADER_STREAM.invoke(ServiceLoader.load(abstractFactoryClazz, classLoader));
+                Iterator<?> it = providers.iterator();
+                while (it.hasNext()) {
+                    Object provider = it.next();
+                    entries.add(new FactoryEntry((Class<?>) PROVIDER_TYPE.invoke(provider), provider));
+                }
+                return entries;
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            } catch (IllegalAccessException e) {
+                entries.clear(); // fall through to reading provider-configuration files
+            }
+        }
+        for (String factoryClassName : factoryClassNames(abstractFactoryClazz, classLoader)) {
+            Class<?> factoryClass;
+            try {
+                factoryClass = Class.forName(factoryClassName, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new ServiceConfigurationError(abstractFactoryClazz.getName() + ": Provider " + factoryClassName + " not found", e);
+            }
+            if (!abstractFactoryClazz.isAssignableFrom(factoryClass)) {
+                throw new ServiceConfigurationError(abstractFactoryClazz.getName() + ": Provider " + factoryClassName + " not a subtype");
+            }
+            entries.add(new FactoryEntry(factoryClass, null));
+        }
+        return entries;
+    }
+
+    /*
+     * Class names from the provider-configuration files of the interface, without duplicates, in the format described
+     * by ServiceLoader.
+     */
+    private static Set<String> factoryClassNames(Class<?> abstractFactoryClazz, ClassLoader classLoader) {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(SERVICES + abstractFactoryClazz.getName());
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (InputStream inputStream = resource.openStream();
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        if (comment >= 0) {
+                            line = line.substring(0, comment);
+                        }
+                        line = line.trim();
+                        if (!line.isEmpty()) {
+                            names.add(line);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ServiceConfigurationError(abstractFactoryClazz.getName() + ": Error reading configuration file", e);
+        }
+        return names;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
     }
 }
@@ -0,0 +1,25 @@
+package no.cantara.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the alias and provider class of a {@link ProviderFactory} implementation, so that {@link ProviderLoader} can
+ * match the factory by name without initializing or instantiating it. The values must be the same as the ones
+ * returned by {@link ProviderFactory#alias()} and {@link ProviderFactory#providerClass()}.
+ * <p>
+ * Factories without this annotation are instantiated when the factories of their interface are loaded, in order to
+ * read their names.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ProviderMetadata {
+
+    String alias();
+
+    Class<?> providerClass();
+}
@@ -0,0 +1,20 @@
+package no.cantara.config;
+
+/**
+ * An {@link ApplicationProperties} instance that can be copied with current values of system-properties, e.g. when
+ * snapshots of system-properties are enabled with {@link Builder#enableSystemPropertiesSnapshot()}. Instances built by
+ * {@link Builder#build()} implement this interface.
+ */
+public interface RefreshableApplicationProperties extends ApplicationProperties {
+
+    /**
+     * Create a new instance where system-properties are read again, and snapshots of system-properties are refreshed.
+     * All other sources are shared with this instance, and expected properties are not validated again.
+     *
+     * @return a new instance with current values of system-properties
+     * @throws UnsupportedOperationException if this instance was loaded from a startup cache, see
+     *                                       {@link Builder#startupCache(String)}, as it no longer knows which of its
+     *                                       sources are system-properties
+     */
+    RefreshableApplicationProperties refreshSystemProperties();
+}
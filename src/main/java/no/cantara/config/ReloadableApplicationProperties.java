@@ -0,0 +1,34 @@
+package no.cantara.config;
+
+/**
+ * An {@link ApplicationProperties} instance that picks up changes to configured property-files while the application
+ * is running. Every reload resolves a new immutable snapshot that is published atomically, so readers always see a
+ * consistent configuration and the read path takes no locks. Reads and property handles from this instance always use
+ * the current snapshot, while maps and sub-trees belong to the snapshot that was current when they were returned.
+ * Components that need to react to changes can register a {@link PropertyChangeListener}.
+ * <p>
+ * If a reloaded configuration does not satisfy the expected properties of the builder, it is rejected and the previous
+ * snapshot stays in use.
+ */
+public interface ReloadableApplicationProperties extends ApplicationProperties, AutoCloseable {
+
+    /**
+     * @return the snapshot currently used to resolve properties
+     */
+    ApplicationProperties snapshot();
+
+    /**
+     * Read property-files that have changed since they were last read, and publish a new snapshot if any changed. Files
+     * are also watched in the background, so calling this method is only needed to apply changes without waiting for
+     * the file-system events.
+     *
+     * @return true if a new snapshot was published
+     */
+    boolean reload();
+
+    /**
+     * Stop watching property-files. The current snapshot is still available after closing.
+     */
+    @Override
+    void close();
+}
@@ -1,14 +1,134 @@
 package no.cantara.config;
 
+import java.lang.reflect.Method;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 public class SourceConfigurationLocationException extends RuntimeException {
 
+    /**
+     * How much of the stack to capture when a configuration source is added to a builder.
+     */
+    public enum Capture {
+        /**
+         * Fill in and keep the full stack-trace, this is the default.
+         */
+        FULL_STACK,
+
+        /**
+         * Keep only the significant frame. On JDK 9 and later the stack is walked lazily and only up to that frame.
+         */
+        SIGNIFICANT_FRAME,
+
+        /**
+         * Do not capture anything, code locations are reported as unknown.
+         */
+        NONE;
+
+        /**
+         * The capture mode configured with the system property {@value #SYSTEM_PROPERTY}, or {@link #FULL_STACK} if
+         * the property is not set.
+         */
+        public static Capture fromSystemProperty() {
+            String value = System.getProperty(SYSTEM_PROPERTY);
+            if (value == null || value.trim().isEmpty()) {
+                return FULL_STACK;
+            }
+            return valueOf(value.trim().toUpperCase());
+        }
+
+        public static final String SYSTEM_PROPERTY = "property-config.source-location-capture";
+    }
+
+    private static final String UNKNOWN_LOCATION = "<unknown location>";
+
+    private static final SourceConfigurationLocationException NOT_CAPTURED = new SourceConfigurationLocationException(null);
+
+    /*
+     * Present on JDK 9 and later, used through reflection to stay compatible with Java 8.
+     */
+    private static final Object STACK_WALKER;
+    private static final Method STACK_WALKER_WALK;
+    private static final Method STACK_FRAME_TO_STACK_TRACE_ELEMENT;
+
+    static {
+        Object stackWalker = null;
+        Method walk = null;
+        Method toStackTraceElement = null;
+        try {
+            Class<?> stackWalkerClass = Class.forName("java.lang.StackWalker");
+            stackWalker = stackWalkerClass.getMethod("getInstance").invoke(null);
+            walk = stackWalkerClass.getMethod("walk", Function.class);
+            toStackTraceElement = Class.forName("java.lang.StackWalker$StackFrame").getMethod("toStackTraceElement");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            stackWalker = null;
+        }
+        STACK_WALKER = stackWalker;
+        STACK_WALKER_WALK = walk;
+        STACK_FRAME_TO_STACK_TRACE_ELEMENT = toStackTraceElement;
+    }
+
     final int significantCodeLocationStackIndex;
 
+    /*
+     * Only set when the stack-trace was not captured.
+     */
+    private final StackTraceElement significantFrame;
+
+    private final boolean stackCaptured;
+
     public SourceConfigurationLocationException(int significantCodeLocationStackIndex) {
         this.significantCodeLocationStackIndex = significantCodeLocationStackIndex;
+        this.significantFrame = null;
+        this.stackCaptured = true;
+    }
+
+    private SourceConfigurationLocationException(StackTraceElement significantFrame) {
+        super(null, null, false, false);
+        this.significantCodeLocationStackIndex = 0;
+        this.significantFrame = significantFrame;
+        this.stackCaptured = false;
+    }
+
+    /**
+     * Capture the code location of a configuration source using the given mode.
+     *
+     * @param capture                           how much of the stack to capture
+     * @param significantCodeLocationStackIndex the index of the significant frame, where 0 is the method calling this
+     *                                          method, like with {@link #SourceConfigurationLocationException(int)}
+     * @return the captured location
+     */
+    public static SourceConfigurationLocationException capture(Capture capture, int significantCodeLocationStackIndex) {
+        switch (capture) {
+            case FULL_STACK:
+                return new SourceConfigurationLocationException(significantCodeLocationStackIndex + 1);
+            case SIGNIFICANT_FRAME:
+                // frame 0 is significantFrame, frame 1 is this method
+                StackTraceElement frame = significantFrame(significantCodeLocationStackIndex + 2);
+                return frame == null ? NOT_CAPTURED : new SourceConfigurationLocationException(frame);
+            default:
+                return NOT_CAPTURED;
+        }
+    }
+
+    private static StackTraceElement significantFrame(long skip) {
+        if (STACK_WALKER != null) {
+            try {
+                Function<Stream<Object>, Object> firstAfterSkip = frames -> frames.skip(skip).findFirst().orElse(null);
+                Object frame = STACK_WALKER_WALK.invoke(STACK_WALKER, firstAfterSkip);
+                return frame == null ? null : (StackTraceElement) STACK_FRAME_TO_STACK_TRACE_ELEMENT.invoke(frame);
+            } catch (ReflectiveOperationException e) {
+                // fall through to capturing the stack-trace
+            }
+        }
+        StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        return skip < stackTrace.length ? stackTrace[(int) skip] : null;
     }
 
     public String getCodeLocation() {
+        if (!stackCaptured) {
+            return significantFrame == null ? UNKNOWN_LOCATION : significantFrame.toString();
+        }
         StackTraceElement[] stackTrace = getStackTrace();
         StackTraceElement element = stackTrace[significantCodeLocationStackIndex];
         return element.toString();
@@ -0,0 +1,56 @@
+package no.cantara.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface whose abstract no-arg methods read properties. The annotation processor in the
+ * property-config-processor artifact generates an implementation named after the interface with the suffix "Impl",
+ * e.g. {@code ServerConfigImpl} for {@code ServerConfig}, with a constructor that takes an {@link ApplicationProperties}.
+ * All values are read and parsed by the constructor and kept in final fields, so the methods only return a field.
+ * <p>
+ * The key of a method is the prefix, a dot, and the method name without a "get" or "is" prefix with camel-case words
+ * separated by dots, e.g. {@code server.connect.timeout} for {@code getConnectTimeout()} with the prefix "server". Use
+ * {@link Key} to set the part after the prefix explicitly.
+ * <p>
+ * Supported return types are String, int, long, boolean, double, their wrapper types, and {@code Optional<String>}.
+ * Properties of wrapper types and {@code Optional<String>} are optional, the methods return null or an empty optional
+ * when the property is not present. All other properties must be present unless they have a {@link Default}, the
+ * constructor throws a RuntimeException naming all missing properties otherwise. The generated class also has a
+ * {@code REQUIRED_KEYS} index of these properties, to pass to
+ * {@link ApplicationProperties.Builder#expectedProperties(PropertyKeyIndex...)}. Unsupported return types and defaults
+ * that cannot be parsed are compile errors.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface TypedProperties {
+
+    /**
+     * @return the prefix of all keys, without a trailing dot, or an empty string for no prefix
+     */
+    String prefix() default "";
+
+    /**
+     * The key of a property, relative to the prefix.
+     */
+    @Documented
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.METHOD)
+    @interface Key {
+        String value();
+    }
+
+    /**
+     * The value to use when a property is not present.
+     */
+    @Documented
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.METHOD)
+    @interface Default {
+        String value();
+    }
+}
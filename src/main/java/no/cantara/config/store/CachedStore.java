@@ -0,0 +1,41 @@
+package no.cantara.config.store;
+
+import no.cantara.config.SourceConfigurationLocationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/*
+ * The properties a source contributed when its result was written to a startup cache.
+ */
+class CachedStore extends AbstractStore {
+    private final String description;
+    final Map<String, String> valueByKey;
+
+    CachedStore(SourceConfigurationLocationException location, String description, LinkedHashMap<String, String> valueByKey) {
+        super(location);
+        this.description = description;
+        this.valueByKey = valueByKey;
+    }
+
+    @Override
+    public String get(String key) {
+        return valueByKey.get(key);
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        valueByKey.forEach(action);
+    }
+
+    @Override
+    public void putAllToMap(Map<String, String> map) {
+        map.putAll(valueByKey);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
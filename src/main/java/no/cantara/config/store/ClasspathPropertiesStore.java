@@ -2,20 +2,17 @@ package no.cantara.config.store;
 
 import no.cantara.config.SourceConfigurationLocationException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Properties;
+import java.util.function.BiConsumer;
 
 class ClasspathPropertiesStore extends AbstractStore {
     private final String resourcePath;
@@ -43,18 +40,14 @@ class ClasspathPropertiesStore extends AbstractStore {
         List<URL> classPathResources = getPropertyResources();
         for (int i = classPathResources.size() - 1; i >= 0; i--) {
             URL classPathResource = classPathResources.get(i);
-            Properties properties = new Properties();
             try {
                 URLConnection urlConnection = classPathResource.openConnection();
-                try (Reader reader = new BufferedReader(new InputStreamReader(urlConnection.getInputStream(), StandardCharsets.UTF_8))) {
-                    properties.load(reader);
+                try (InputStream inputStream = urlConnection.getInputStream()) {
+                    PropertiesParser.parse(inputStream, propertyByName::put);
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            for (Map.Entry<Object, Object> e : properties.entrySet()) {
-                propertyByName.put((String) e.getKey(), (String) e.getValue());
-            }
         }
     }
 
@@ -63,6 +56,11 @@ class ClasspathPropertiesStore extends AbstractStore {
         return propertyByName.get(key);
     }
 
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        propertyByName.forEach(action);
+    }
+
     @Override
     public void putAllToMap(Map<String, String> map) {
         map.putAll(propertyByName);
@@ -8,10 +8,12 @@ class DebuggableSource implements ApplicationProperties.Source {
 
     final Store store;
     final String propertyName;
+    final String propertyValue;
 
-    DebuggableSource(Store store, String propertyName) {
+    DebuggableSource(Store store, String propertyName, String propertyValue) {
         this.store = store;
         this.propertyName = propertyName;
+        this.propertyValue = propertyValue;
     }
 
     @Override
@@ -21,7 +23,7 @@ class DebuggableSource implements ApplicationProperties.Source {
 
     @Override
     public String propertyValue() {
-        return store.get(propertyName);
+        return propertyValue;
     }
 
     @Override
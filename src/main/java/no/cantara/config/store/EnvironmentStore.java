@@ -4,13 +4,15 @@ import no.cantara.config.EnvironmentVariableEscaping;
 import no.cantara.config.SourceConfigurationLocationException;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -18,15 +20,56 @@ class EnvironmentStore extends AbstractStore {
 
     private static final Logger log = getLogger(EnvironmentStore.class);
 
-    private final Set<String> basePropertyKeys;
     private final String prefix;
     private final boolean useEscaping;
 
+    /*
+     * Immutable index over the environment as it was when this store was created. Holds each overridden base property
+     * key with casing auto-detection applied, and is read by both get() and forEach so that the two agree.
+     */
+    private final Map<String, String> valueByPropertyKey;
+
+    /*
+     * The same overrides as arrays, in the order they are passed to forEach.
+     */
+    private final String[] overrideKeys;
+    private final String[] overrideValues;
+
     EnvironmentStore(Set<String> basePropertyKeys, SourceConfigurationLocationException location, String prefix, boolean useEscaping) {
+        this(System.getenv(), basePropertyKeys, location, prefix, useEscaping);
+    }
+
+    EnvironmentStore(Map<String, String> environment, Set<String> basePropertyKeys, SourceConfigurationLocationException location, String prefix, boolean useEscaping) {
         super(location);
-        this.basePropertyKeys = basePropertyKeys;
         this.prefix = prefix;
         this.useEscaping = useEscaping;
+
+        Map<String, String> valueByPropertyKey = new LinkedHashMap<>();
+        Map<String, List<String>> casingByLowercase = new HashMap<>();
+        for (String key : basePropertyKeys) {
+            casingByLowercase.computeIfAbsent(key.toLowerCase(), k -> new ArrayList<>(1)).add(key);
+        }
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                String strippedEnvVarKey = entry.getKey().substring(prefix.length());
+                if (useEscaping) {
+                    if (basePropertyKeys.contains(strippedEnvVarKey)) {
+                        log.warn("Environment-variable '{}' will NOT override property with same name. To override this property, use environment-variable '{}'", strippedEnvVarKey, EnvironmentVariableEscaping.escape(strippedEnvVarKey));
+                    }
+                }
+                String propKey = envVarToJavaProperty(strippedEnvVarKey);
+                List<String> aliasedPropKeys = casingByLowercase.getOrDefault(propKey, Collections.emptyList());
+                for (String key : aliasedPropKeys) {
+                    valueByPropertyKey.put(key, entry.getValue());
+                }
+                if (!aliasedPropKeys.contains(propKey) && basePropertyKeys.contains(propKey)) {
+                    valueByPropertyKey.put(propKey, entry.getValue()); // exact match of a mixed-case key without escaping
+                }
+            }
+        }
+        this.valueByPropertyKey = Collections.unmodifiableMap(valueByPropertyKey);
+        this.overrideKeys = valueByPropertyKey.keySet().toArray(new String[0]);
+        this.overrideValues = valueByPropertyKey.values().toArray(new String[0]);
     }
 
     public String envVarToJavaProperty(String envVarKey) {
@@ -45,36 +88,13 @@ class EnvironmentStore extends AbstractStore {
 
     @Override
     public String get(String key) {
-        if (!basePropertyKeys.contains(key)) {
-            return null; // key does not override an existing property from a base store
-        }
-        String envKey = prefix + javaPropertyToEnvVar(key);
-        String value = System.getenv(envKey);
-        return value;
+        return valueByPropertyKey.get(key); // null unless key overrides an existing property from a base store
     }
 
     @Override
-    public void putAllToMap(Map<String, String> map) {
-        Map<String, List<String>> casingByLowercase = new LinkedHashMap<>();
-        for (String key : basePropertyKeys) {
-            String lowercaseKey = key.toLowerCase();
-            casingByLowercase.computeIfAbsent(lowercaseKey, k -> new LinkedList<>())
-                    .add(key);
-        }
-        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
-            if (entry.getKey().startsWith(prefix)) {
-                String strippedEnvVarKey = entry.getKey().substring(prefix.length());
-                if (useEscaping) {
-                    if (map.containsKey(strippedEnvVarKey)) {
-                        log.warn("Environment-variable '{}' will NOT override property with same name. To override this property, use environment-variable '{}'", strippedEnvVarKey, EnvironmentVariableEscaping.escape(strippedEnvVarKey));
-                    }
-                }
-                String propKey = envVarToJavaProperty(strippedEnvVarKey);
-                List<String> aliasedPropKeys = casingByLowercase.getOrDefault(propKey, Collections.emptyList());
-                aliasedPropKeys.stream()
-                        .filter(basePropertyKeys::contains)
-                        .forEach(key -> map.put(key, entry.getValue()));
-            }
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < overrideKeys.length; i++) {
+            action.accept(overrideKeys[i], overrideValues[i]);
         }
     }
 
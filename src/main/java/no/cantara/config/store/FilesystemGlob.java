@@ -0,0 +1,97 @@
+package no.cantara.config.store;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A glob pattern for property-files, like "conf.d/*.properties". The leading path elements without glob characters
+ * form the base directory, and the rest of the pattern is matched against paths relative to it using the "glob:"
+ * syntax of {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+ */
+class FilesystemGlob {
+
+    private final String glob;
+    private final Path baseDirectory;
+    private final PathMatcher matcher;
+    private final int maxDepth;
+
+    FilesystemGlob(String glob) {
+        this.glob = glob;
+        String[] elements = glob.split("[/\\\\]", -1);
+        int firstPatternElement = 0;
+        while (firstPatternElement < elements.length - 1 && !hasGlobCharacters(elements[firstPatternElement])) {
+            firstPatternElement++;
+        }
+        StringBuilder base = new StringBuilder();
+        for (int i = 0; i < firstPatternElement; i++) {
+            base.append(elements[i]).append('/');
+        }
+        this.baseDirectory = Paths.get(base.length() == 0 ? "." : base.toString()).toAbsolutePath().normalize();
+        StringBuilder pattern = new StringBuilder();
+        for (int i = firstPatternElement; i < elements.length; i++) {
+            if (pattern.length() > 0) {
+                pattern.append('/');
+            }
+            pattern.append(elements[i]);
+        }
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        this.maxDepth = pattern.indexOf("**") >= 0 ? Integer.MAX_VALUE : elements.length - firstPatternElement;
+    }
+
+    private static boolean hasGlobCharacters(String element) {
+        for (int i = 0; i < element.length(); i++) {
+            switch (element.charAt(i)) {
+                case '*':
+                case '?':
+                case '[':
+                case '{':
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    Path baseDirectory() {
+        return baseDirectory;
+    }
+
+    /**
+     * @param path an absolute and normalized path
+     * @return whether the path matches this glob
+     */
+    boolean matches(Path path) {
+        return path.startsWith(baseDirectory) && matcher.matches(baseDirectory.relativize(path));
+    }
+
+    /**
+     * @return the absolute paths of the regular files that match this glob, ordered by their path relative to the base
+     * directory
+     */
+    List<Path> discover() {
+        if (!Files.isDirectory(baseDirectory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(baseDirectory, maxDepth)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(baseDirectory.relativize(path)))
+                    .sorted((a, b) -> baseDirectory.relativize(a).toString().compareTo(baseDirectory.relativize(b).toString()))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+}
@@ -2,49 +2,82 @@ package no.cantara.config.store;
 
 import no.cantara.config.SourceConfigurationLocationException;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Properties;
+import java.util.function.BiConsumer;
 
 class FilesystemPropertiesStore extends AbstractStore {
     private final String resourcePath;
+    private final Path path;
     private final Map<String, String> propertyByName = new LinkedHashMap<>();
 
+    /*
+     * Attributes of the file when it was read, null if the file did not exist.
+     */
+    private final BasicFileAttributes attributes;
+
     FilesystemPropertiesStore(SourceConfigurationLocationException location, String resourcePath) {
         super(location);
         this.resourcePath = resourcePath;
 
         // If file exists, override configuration
-        Path path = Paths.get(resourcePath);
-        if (Files.exists(path)) {
-            Properties properties = new Properties();
-            try (Reader reader = new BufferedReader(new InputStreamReader(
-                    new FileInputStream(path.toFile()), StandardCharsets.UTF_8))) {
-                properties.load(reader);
+        Path path = pathOf(resourcePath);
+        this.path = path;
+        this.attributes = attributesOf(path);
+        if (attributes != null) {
+            try {
+                PropertiesParser.parse(path, propertyByName::put);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            for (Map.Entry<Object, Object> e : properties.entrySet()) {
-                propertyByName.put((String) e.getKey(), (String) e.getValue());
-            }
         }
     }
 
+    static Path pathOf(String resourcePath) {
+        return Paths.get(resourcePath).toAbsolutePath().normalize();
+    }
+
+    private static BasicFileAttributes attributesOf(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * @return whether the file has been created, deleted or modified since it was read by this store
+     */
+    boolean isStale() {
+        BasicFileAttributes current = attributesOf(path);
+        if (attributes == null || current == null) {
+            return attributes != current;
+        }
+        return !attributes.lastModifiedTime().equals(current.lastModifiedTime())
+                || attributes.size() != current.size()
+                || !Objects.equals(attributes.fileKey(), current.fileKey());
+    }
+
     @Override
     public String get(String key) {
         return propertyByName.get(key);
     }
 
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        propertyByName.forEach(action);
+    }
+
     @Override
     public void putAllToMap(Map<String, String> map) {
         map.putAll(propertyByName);
@@ -0,0 +1,303 @@
+package no.cantara.config.store;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map of properties, optimized for lookups in large configurations. Keys, values and pre-computed hashes
+ * are kept in parallel arrays in insertion order, the position of an entry in these arrays is its slot. Lookups use an
+ * open-addressing table with linear probing that maps hashes to slots, so a lookup touches a few ints and the key
+ * that is finally compared, without any per-entry node objects.
+ * <p>
+ * Iteration order is insertion order, like the {@link java.util.LinkedHashMap} this map is built from. All mutating
+ * methods throw {@link UnsupportedOperationException}.
+ */
+class ImmutablePropertyMap extends AbstractMap<String, String> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final String[] keys;
+    private final String[] values;
+    private final int[] hashes;
+
+    /*
+     * slot + 1 of the entry with a given hash, 0 means empty.
+     */
+    private final int[] table;
+    private final int mask;
+
+    private Set<Entry<String, String>> entrySet;
+
+    ImmutablePropertyMap(Map<String, String> map) {
+        int size = map.size();
+        this.keys = new String[size];
+        this.values = new String[size];
+        this.hashes = new int[size];
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (size / LOAD_FACTOR) + 1) - 1) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        int slot = 0;
+        for (Entry<String, String> entry : map.entrySet()) {
+            String key = entry.getKey();
+            int hash = hash(key);
+            keys[slot] = key;
+            values[slot] = entry.getValue();
+            hashes[slot] = hash;
+            int i = hash & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = slot + 1;
+            slot++;
+        }
+    }
+
+    static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the slot of the key, or -1 if the key is not present.
+     */
+    int indexOf(Object key) {
+        int hash = hash(key);
+        int i = hash & mask;
+        int entry;
+        while ((entry = table[i]) != 0) {
+            int slot = entry - 1;
+            if (hashes[slot] == hash && Objects.equals(keys[slot], key)) {
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Look up the key that is the concatenation of the given prefix, an optional dot and the given suffix, without
+     * allocating the concatenated string.
+     *
+     * @param prefix the beginning of the key
+     * @param dot    whether there is a '.' between prefix and suffix
+     * @param suffix the end of the key
+     * @return the slot of the key, or -1 if the key is not present.
+     */
+    int indexOf(String prefix, boolean dot, String suffix) {
+        int h = prefix.hashCode();
+        if (dot) {
+            h = 31 * h + '.';
+        }
+        int suffixLength = suffix.length();
+        for (int i = 0; i < suffixLength; i++) {
+            h *= 31;
+        }
+        h += suffix.hashCode(); // same as (prefix + "." + suffix).hashCode()
+        int hash = h ^ (h >>> 16);
+        int keyLength = prefix.length() + (dot ? 1 : 0) + suffixLength;
+        int i = hash & mask;
+        int entry;
+        while ((entry = table[i]) != 0) {
+            int slot = entry - 1;
+            String key = keys[slot];
+            if (hashes[slot] == hash
+                    && key != null
+                    && key.length() == keyLength
+                    && key.startsWith(prefix)
+                    && (!dot || key.charAt(prefix.length()) == '.')
+                    && key.startsWith(suffix, keyLength - suffixLength)) {
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    String valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return the values by slot, callers must not modify the returned array.
+     */
+    String[] valueArray() {
+        return values;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (String v : values) {
+            if (Objects.equals(v, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getOrDefault(Object key, String defaultValue) {
+        int slot = indexOf(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            action.accept(keys[slot], values[slot]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new EntrySet();
+        }
+        return es;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<String>() {
+                    @Override
+                    String at(int slot) {
+                        return keys[slot];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return indexOf(o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public Collection<String> values() {
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<String>() {
+                    @Override
+                    String at(int slot) {
+                        return values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public String put(String key, String value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new SlotIterator<Entry<String, String>>() {
+                @Override
+                Entry<String, String> at(int slot) {
+                    return new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            int slot = indexOf(e.getKey());
+            return slot >= 0 && Objects.equals(values[slot], e.getValue());
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        int next;
+
+        abstract E at(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public E next() {
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            return at(next++);
+        }
+    }
+}
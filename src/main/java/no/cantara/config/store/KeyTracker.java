@@ -0,0 +1,79 @@
+package no.cantara.config.store;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Keeps track of property keys in the order they were first defined while resolving stores. A snapshot is a view of
+ * the keys defined up to the moment the snapshot was taken, and costs nothing to take. A tracker is only used by one
+ * thread while building, and is never modified after the built instance has been published.
+ */
+class KeyTracker {
+
+    private final Map<String, Integer> sequenceByKey = new HashMap<>();
+    private final List<String> keysInOrder = new ArrayList<>();
+
+    void add(String key) {
+        if (sequenceByKey.putIfAbsent(key, keysInOrder.size()) == null) {
+            keysInOrder.add(key);
+        }
+    }
+
+    void addAll(Iterable<String> keys) {
+        for (String key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * @return an immutable view of the keys defined so far, not affected by keys added later.
+     */
+    Set<String> snapshot() {
+        return new Snapshot(keysInOrder.size());
+    }
+
+    private class Snapshot extends AbstractSet<String> {
+        final int size;
+
+        Snapshot(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer sequence = sequenceByKey.get(o);
+            return sequence != null && sequence < size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public String next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return keysInOrder.get(next++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
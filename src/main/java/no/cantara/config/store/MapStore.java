@@ -5,6 +5,7 @@ import no.cantara.config.SourceConfigurationLocationException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 class MapStore extends AbstractStore {
     final Map<String, String> valueByKey = new LinkedHashMap<>();
@@ -19,6 +20,11 @@ class MapStore extends AbstractStore {
         return valueByKey.get(key);
     }
 
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        valueByKey.forEach(action);
+    }
+
     @Override
     public void putAllToMap(Map<String, String> map) {
         map.putAll(valueByKey);
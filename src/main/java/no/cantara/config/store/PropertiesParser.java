@@ -0,0 +1,366 @@
+package no.cantara.config.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses UTF-8 encoded properties directly from bytes into name/value pairs, producing the same result as
+ * {@link java.util.Properties#load(java.io.Reader)} with a UTF-8 {@link java.io.InputStreamReader}, but without the
+ * synchronized intermediate {@link java.util.Properties} instance. Pairs are passed on in the order they appear in the
+ * input, duplicates included.
+ * <p>
+ * Bytes are decoded while parsing in a single pass. Malformed UTF-8 is replaced by U+FFFD in the same way as the JDK
+ * decoder does it. The line syntax follows the JDK 9+ implementation of {@code Properties.load}: natural lines are
+ * terminated by '\n', '\r' or "\r\n", leading white space is skipped, lines that start with '#' or '!' are comments,
+ * an odd number of backslashes at the end of a line joins it with the next line, and keys are separated from values by
+ * '=', ':' or white space. Escapes are the ones of {@code Properties.load}, and a malformed \\uxxxx escape causes an
+ * {@link IllegalArgumentException}.
+ * <p>
+ * Files of at least {@value #MAP_THRESHOLD} bytes are memory-mapped instead of read onto the heap.
+ */
+class PropertiesParser {
+
+    static final int MAP_THRESHOLD = 1 << 20;
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final ByteBuffer in;
+    private int position;
+    private final int limit;
+
+    /*
+     * Low surrogate of a decoded supplementary character that has not been returned yet, 0 if none.
+     */
+    private char pendingLowSurrogate;
+
+    private char[] line = new char[256];
+    private final StringBuilder converted = new StringBuilder();
+
+    private PropertiesParser(ByteBuffer in) {
+        this.in = in;
+        this.position = in.position();
+        this.limit = in.limit();
+    }
+
+    static void parse(Path path, BiConsumer<String, String> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Properties-file is too large: " + path);
+                }
+                parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), action);
+                return;
+            }
+        }
+        parse(ByteBuffer.wrap(Files.readAllBytes(path)), action);
+    }
+
+    static void parse(InputStream inputStream, BiConsumer<String, String> action) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, n);
+        }
+        parse(ByteBuffer.wrap(bytes.toByteArray()), action);
+    }
+
+    static void parse(ByteBuffer bytes, BiConsumer<String, String> action) {
+        new PropertiesParser(bytes).parse(action);
+    }
+
+    private void parse(BiConsumer<String, String> action) {
+        int length;
+        while ((length = readLine()) >= 0) {
+            int keyLength = 0;
+            int valueStart = length;
+            boolean hasSeparator = false;
+            boolean precedingBackslash = false;
+            while (keyLength < length) {
+                char c = line[keyLength];
+                if ((c == '=' || c == ':') && !precedingBackslash) {
+                    valueStart = keyLength + 1;
+                    hasSeparator = true;
+                    break;
+                } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                    valueStart = keyLength + 1;
+                    break;
+                }
+                precedingBackslash = c == '\\' && !precedingBackslash;
+                keyLength++;
+            }
+            while (valueStart < length) {
+                char c = line[valueStart];
+                if (c != ' ' && c != '\t' && c != '\f') {
+                    if (!hasSeparator && (c == '=' || c == ':')) {
+                        hasSeparator = true;
+                    } else {
+                        break;
+                    }
+                }
+                valueStart++;
+            }
+            String key = convert(0, keyLength);
+            String value = convert(valueStart, length);
+            action.accept(key, value);
+        }
+    }
+
+    /*
+     * Read a logical line into the line buffer.
+     *
+     * @return the length of the line, or -1 at the end of input
+     */
+    private int readLine() {
+        int length = 0;
+        boolean skipWhiteSpace = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        while (true) {
+            int c = next();
+            if (c < 0) {
+                if (length == 0) {
+                    return -1;
+                }
+                return precedingBackslash ? length - 1 : length;
+            }
+            if (skipWhiteSpace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhiteSpace = false;
+                appendedLineBegin = false;
+            }
+            if (length == 0 && (c == '#' || c == '!')) {
+                // comment, skip the rest of the natural line
+                do {
+                    c = next();
+                    if (c < 0) {
+                        return -1;
+                    }
+                } while (c != '\r' && c != '\n');
+                skipWhiteSpace = true;
+                continue;
+            }
+            if (c != '\n' && c != '\r') {
+                if (length == line.length) {
+                    char[] grown = new char[line.length * 2];
+                    System.arraycopy(line, 0, grown, 0, length);
+                    line = grown;
+                }
+                line[length++] = (char) c;
+                precedingBackslash = c == '\\' && !precedingBackslash;
+                continue;
+            }
+            // end of natural line
+            if (length == 0) {
+                skipWhiteSpace = true;
+                continue;
+            }
+            if (atEnd()) {
+                return precedingBackslash ? length - 1 : length;
+            }
+            if (!precedingBackslash) {
+                return length;
+            }
+            // continuation, the backslash is not part of the line
+            length--;
+            skipWhiteSpace = true;
+            appendedLineBegin = true;
+            precedingBackslash = false;
+            if (c == '\r') {
+                if (atEnd()) {
+                    return length;
+                }
+                if (peek() == '\n') {
+                    next();
+                }
+            }
+        }
+    }
+
+    /*
+     * Convert escapes in line[from, to).
+     */
+    private String convert(int from, int to) {
+        int off = from;
+        while (off < to && line[off] != '\\') {
+            off++;
+        }
+        if (off == to) {
+            return new String(line, from, to - from);
+        }
+        StringBuilder out = converted;
+        out.setLength(0);
+        out.append(line, from, off - from);
+        while (off < to) {
+            char c = line[off++];
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            c = line[off++]; // a line never ends with an unescaped backslash
+            if (c == 'u') {
+                if (off > to - 4) {
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                }
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    c = line[off++];
+                    if (c >= '0' && c <= '9') {
+                        value = (value << 4) + c - '0';
+                    } else if (c >= 'a' && c <= 'f') {
+                        value = (value << 4) + 10 + c - 'a';
+                    } else if (c >= 'A' && c <= 'F') {
+                        value = (value << 4) + 10 + c - 'A';
+                    } else {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                }
+                out.append((char) value);
+            } else if (c == 't') {
+                out.append('\t');
+            } else if (c == 'r') {
+                out.append('\r');
+            } else if (c == 'n') {
+                out.append('\n');
+            } else if (c == 'f') {
+                out.append('\f');
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private boolean atEnd() {
+        return pendingLowSurrogate == 0 && position >= limit;
+    }
+
+    /*
+     * The next char without consuming it, only used to look for '\n' which is always a single byte.
+     */
+    private int peek() {
+        if (pendingLowSurrogate != 0) {
+            return pendingLowSurrogate;
+        }
+        return in.get(position);
+    }
+
+    /*
+     * Decode the next UTF-16 char, or return -1 at the end of input.
+     */
+    private int next() {
+        if (pendingLowSurrogate != 0) {
+            char c = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+            return c;
+        }
+        if (position >= limit) {
+            return -1;
+        }
+        int b1 = in.get(position);
+        if (b1 >= 0) {
+            position++;
+            return b1;
+        }
+        return decode(b1);
+    }
+
+    /*
+     * Decode a multi-byte sequence. The lengths of malformed input replaced by U+FFFD are the ones used by the JDK
+     * UTF-8 decoder, which is what InputStreamReader uses to decode properties-files.
+     */
+    private int decode(int b1) {
+        int remaining = limit - position;
+        if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
+            // 2 bytes, 11 bits: 110xxxxx 10xxxxxx
+            if (remaining < 2) {
+                return replace(remaining);
+            }
+            int b2 = in.get(position + 1);
+            if (isNotContinuation(b2)) {
+                return replace(1);
+            }
+            position += 2;
+            return ((b1 & 0x1f) << 6) | (b2 & 0x3f);
+        } else if ((b1 >> 4) == -2) {
+            // 3 bytes, 16 bits: 1110xxxx 10xxxxxx 10xxxxxx
+            if (remaining < 3) {
+                if (remaining > 1 && isMalformed3Prefix(b1, in.get(position + 1))) {
+                    return replace(1);
+                }
+                return replace(remaining); // truncated at the end of input
+            }
+            int b2 = in.get(position + 1);
+            int b3 = in.get(position + 2);
+            if (isMalformed3Prefix(b1, b2) || isNotContinuation(b3)) {
+                return replace(isMalformed3Prefix(b1, b2) ? 1 : 2);
+            }
+            char c = (char) (((b1 & 0x0f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x3f));
+            if (Character.isSurrogate(c)) {
+                return replace(3);
+            }
+            position += 3;
+            return c;
+        } else if ((b1 >> 3) == -2) {
+            // 4 bytes, 21 bits: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+            int u1 = b1 & 0xff;
+            if (remaining < 4) {
+                if (u1 > 0xf4 || remaining > 1 && isMalformed4Prefix(u1, in.get(position + 1) & 0xff)) {
+                    return replace(1);
+                }
+                if (remaining > 2 && isNotContinuation(in.get(position + 2))) {
+                    return replace(2);
+                }
+                return replace(remaining); // truncated at the end of input
+            }
+            int b2 = in.get(position + 1);
+            int b3 = in.get(position + 2);
+            int b4 = in.get(position + 3);
+            int codePoint = ((b1 & 0x07) << 18) | ((b2 & 0x3f) << 12) | ((b3 & 0x3f) << 6) | (b4 & 0x3f);
+            if (isNotContinuation(b2) || isNotContinuation(b3) || isNotContinuation(b4)
+                    || !Character.isSupplementaryCodePoint(codePoint)) {
+                if (u1 > 0xf4 || isMalformed4Prefix(u1, b2 & 0xff)) {
+                    return replace(1);
+                }
+                return replace(isNotContinuation(b3) ? 2 : 3);
+            }
+            position += 4;
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        // continuation byte without lead, or a lead byte that is never valid
+        return replace(1);
+    }
+
+    private int replace(int malformedLength) {
+        position += malformedLength;
+        return REPLACEMENT;
+    }
+
+    private static boolean isNotContinuation(int b) {
+        return (b & 0xc0) != 0x80;
+    }
+
+    private static boolean isMalformed3Prefix(int b1, int b2) {
+        return (b1 == (byte) 0xe0 && (b2 & 0xe0) == 0x80) || isNotContinuation(b2);
+    }
+
+    private static boolean isMalformed4Prefix(int u1, int u2) {
+        return (u1 == 0xf0 && (u2 < 0x90 || u2 > 0xbf))
+                || (u1 == 0xf4 && (u2 & 0xf0) != 0x80)
+                || isNotContinuation(u2);
+    }
+}
@@ -0,0 +1,76 @@
+package no.cantara.config.store;
+
+import no.cantara.config.PropertyChanges;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes the {@link PropertyChanges} between two instances with one merge of their sorted key indexes. With a prefix
+ * only the ranges of the indexes that match the prefix are merged, and names are stripped of the prefix like with
+ * {@link StoreBasedApplicationProperties#subMap(String)}.
+ */
+class PropertyDiff {
+
+    private static final Comparator<String> KEY_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    static PropertyChanges between(StoreBasedApplicationProperties previous, StoreBasedApplicationProperties next) {
+        return merge(previous, 0, previous.sortedKeys.size(), next, 0, next.sortedKeys.size(), 0);
+    }
+
+    static PropertyChanges between(StoreBasedApplicationProperties previous, StoreBasedApplicationProperties next, String prefix) {
+        boolean dot = !prefix.endsWith(".");
+        int previousFrom = previous.sortedKeys.lowerBound(prefix, dot);
+        int previousTo = previous.sortedKeys.upperBound(prefix, dot, previousFrom);
+        int nextFrom = next.sortedKeys.lowerBound(prefix, dot);
+        int nextTo = next.sortedKeys.upperBound(prefix, dot, nextFrom);
+        return merge(previous, previousFrom, previousTo, next, nextFrom, nextTo, prefix.length() + (dot ? 1 : 0));
+    }
+
+    private static PropertyChanges merge(StoreBasedApplicationProperties previous, int i, int previousTo,
+                                         StoreBasedApplicationProperties next, int j, int nextTo,
+                                         int prefixLength) {
+        ImmutablePropertyMap previousMap = previous.effectiveProperties;
+        ImmutablePropertyMap nextMap = next.effectiveProperties;
+        SortedKeyIndex previousKeys = previous.sortedKeys;
+        SortedKeyIndex nextKeys = next.sortedKeys;
+        List<PropertyChanges.Change> changes = new ArrayList<>();
+        while (i < previousTo || j < nextTo) {
+            int previousSlot = i < previousTo ? previousKeys.slotAt(i) : -1;
+            int nextSlot = j < nextTo ? nextKeys.slotAt(j) : -1;
+            int order;
+            if (previousSlot < 0) {
+                order = 1;
+            } else if (nextSlot < 0) {
+                order = -1;
+            } else {
+                order = KEY_ORDER.compare(previousMap.keyAt(previousSlot), nextMap.keyAt(nextSlot));
+            }
+            if (order < 0) {
+                changes.add(new PropertyChanges.Change(strip(previousMap.keyAt(previousSlot), prefixLength),
+                        previousMap.valueAt(previousSlot), null, PropertyChanges.Kind.REMOVED));
+                i++;
+            } else if (order > 0) {
+                changes.add(new PropertyChanges.Change(strip(nextMap.keyAt(nextSlot), prefixLength),
+                        null, nextMap.valueAt(nextSlot), PropertyChanges.Kind.ADDED));
+                j++;
+            } else {
+                String oldValue = previousMap.valueAt(previousSlot);
+                String newValue = nextMap.valueAt(nextSlot);
+                if (!Objects.equals(oldValue, newValue)) {
+                    changes.add(new PropertyChanges.Change(strip(nextMap.keyAt(nextSlot), prefixLength),
+                            oldValue, newValue, PropertyChanges.Kind.CHANGED));
+                }
+                i++;
+                j++;
+            }
+        }
+        return new PropertyChanges(changes);
+    }
+
+    private static String strip(String key, int prefixLength) {
+        return prefixLength == 0 ? key : key.substring(prefixLength);
+    }
+}
@@ -0,0 +1,139 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The stores that define each property of an {@link ImmutablePropertyMap}, in precedence order, together with the
+ * values they defined when the index was built. Entries are kept in compressed rows by slot: the entries of a slot are
+ * at positions offsets[slot] until offsets[slot + 1] of the parallel store index and value arrays.
+ * <p>
+ * Stores that define a property with a null value are not sources of the property.
+ */
+class ProvenanceIndex {
+
+    private final Store[] stores;
+    private final int[] offsets;
+    private final int[] storeIndices;
+    private final String[] values;
+
+    /**
+     * @param storeList stores in precedence order, the first store has the highest precedence
+     * @param map       the effective properties of the stores
+     */
+    ProvenanceIndex(Collection<Store> storeList, ImmutablePropertyMap map) {
+        this.stores = storeList.toArray(new Store[0]);
+        int slots = map.size();
+        Entries entries = new Entries(map, slots);
+        for (int i = 0; i < stores.length; i++) {
+            entries.store = i;
+            stores[i].forEach(entries::add);
+        }
+
+        // counting sort by slot, stable so that entries of a slot stay in precedence order
+        int n = entries.size;
+        this.offsets = new int[slots + 1];
+        for (int e = 0; e < n; e++) {
+            offsets[entries.slots[e] + 1]++;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            offsets[slot + 1] += offsets[slot];
+        }
+        this.storeIndices = new int[n];
+        this.values = new String[n];
+        int[] next = Arrays.copyOf(offsets, slots);
+        for (int e = 0; e < n; e++) {
+            int position = next[entries.slots[e]]++;
+            storeIndices[position] = entries.stores[e];
+            values[position] = entries.values[e];
+        }
+    }
+
+    /*
+     * Entries in the order the stores define them, at most one per store and slot.
+     */
+    private static final class Entries {
+        final ImmutablePropertyMap map;
+        int store;
+        int size;
+        int[] slots = new int[16];
+        int[] stores = new int[16];
+        String[] values = new String[16];
+
+        /*
+         * The last store that defined each slot, and the position of its entry.
+         */
+        final int[] lastStore;
+        final int[] lastEntry;
+
+        Entries(ImmutablePropertyMap map, int slots) {
+            this.map = map;
+            this.lastStore = new int[slots];
+            this.lastEntry = new int[slots];
+            Arrays.fill(lastStore, -1);
+        }
+
+        void add(String key, String value) {
+            if (value == null) {
+                return;
+            }
+            int slot = map.indexOf(key);
+            if (slot < 0) {
+                return;
+            }
+            if (lastStore[slot] == store) {
+                values[lastEntry[slot]] = value; // defined again by the same store, the last value is effective
+                return;
+            }
+            if (size == slots.length) {
+                int capacity = size * 2;
+                slots = Arrays.copyOf(slots, capacity);
+                stores = Arrays.copyOf(stores, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            slots[size] = slot;
+            stores[size] = store;
+            values[size] = value;
+            lastStore[slot] = store;
+            lastEntry[slot] = size;
+            size++;
+        }
+    }
+
+    /**
+     * @return the sources of the property in the given slot, in precedence order
+     */
+    List<ApplicationProperties.Source> sourcesOf(String name, int slot) {
+        return new Sources(name, offsets[slot], offsets[slot + 1]);
+    }
+
+    private final class Sources extends AbstractList<ApplicationProperties.Source> implements RandomAccess {
+        final String name;
+        final int from;
+        final int to;
+
+        Sources(String name, int from, int to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public ApplicationProperties.Source get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return new DebuggableSource(stores[storeIndices[from + index]], name, values[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
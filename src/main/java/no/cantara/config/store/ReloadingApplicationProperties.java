@@ -0,0 +1,349 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.PropertyChangeListener;
+import no.cantara.config.PropertyChanges;
+import no.cantara.config.ReloadableApplicationProperties;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Publishes a new {@link StoreBasedApplicationProperties} snapshot whenever watched property-files change. Readers do a
+ * single volatile read of the current snapshot, all writes happen on the watcher thread or in {@link #reload()} while
+ * holding the lock of this instance. Change listeners are notified from a separate dispatcher thread, so publishing
+ * never waits for diffs to be computed or listeners to return.
+ */
+class ReloadingApplicationProperties implements ReloadableApplicationProperties {
+
+    private static final Logger log = getLogger(ReloadingApplicationProperties.class);
+
+    private final StoreBasedApplicationProperties.Builder builder;
+    private final long debounceMillis;
+
+    private volatile StoreBasedApplicationProperties current;
+
+    /*
+     * Guarded by this.
+     */
+    private StoreBasedApplicationProperties.Resolution resolution;
+
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    private final List<ListenerRegistration> listeners = new CopyOnWriteArrayList<>();
+
+    /*
+     * Single thread that computes diffs and notifies listeners in publishing order, created with the first listener.
+     * Guarded by this.
+     */
+    private ExecutorService dispatcher;
+    private boolean closed;
+
+    ReloadingApplicationProperties(StoreBasedApplicationProperties.Builder builder, Duration debounce) {
+        this.builder = builder;
+        this.debounceMillis = Math.max(0, debounce.toMillis());
+        this.resolution = builder.resolve(null, Collections.emptySet());
+        StoreBasedApplicationProperties initial = new StoreBasedApplicationProperties(resolution.storeList, builder.obfuscator);
+        StoreBasedApplicationProperties.Builder.validate(builder.expectedApplicationProperties, initial);
+        this.current = initial;
+        this.watchService = newWatchService();
+        Set<Path> directories = new LinkedHashSet<>();
+        for (FilesystemGlob glob : resolution.globs) {
+            directories.add(glob.baseDirectory());
+        }
+        for (Path file : resolution.filesystemStores.keySet()) {
+            directories.add(file.getParent());
+        }
+        for (Path directory : directories) {
+            if (directory != null && Files.isDirectory(directory)) {
+                try {
+                    directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                } catch (IOException e) {
+                    log.warn("Unable to watch directory '{}' for changes to property-files, use reload() to apply changes", directory, e);
+                }
+            }
+        }
+        this.watcher = new Thread(this::watch, "property-config-reload");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    private static WatchService newWatchService() {
+        try {
+            return FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                boolean overflow = drain(watchService.take(), changed);
+                // coalesce events until the files have been quiet for the debounce period
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= drain(key, changed);
+                }
+                if (overflow) {
+                    reload();
+                } else if (!changed.isEmpty()) {
+                    reload(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (RuntimeException e) {
+            log.error("Watching property-files for changes failed, use reload() to apply changes", e);
+        }
+    }
+
+    /*
+     * Collect changed files that are watched, returns true if events were lost.
+     */
+    private boolean drain(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    @Override
+    public synchronized boolean reload() {
+        Set<Path> stale = new HashSet<>();
+        for (Map.Entry<Path, FilesystemPropertiesStore> entry : resolution.filesystemStores.entrySet()) {
+            if (entry.getValue().isStale()) {
+                stale.add(entry.getKey());
+            }
+        }
+        for (FilesystemGlob glob : resolution.globs) {
+            for (Path path : glob.discover()) {
+                if (!resolution.filesystemStores.containsKey(path)) {
+                    stale.add(path); // new file
+                }
+            }
+        }
+        return reload(stale);
+    }
+
+    private synchronized boolean reload(Set<Path> changed) {
+        changed.removeIf(path -> !resolution.isWatched(path));
+        if (changed.isEmpty()) {
+            return false;
+        }
+        StoreBasedApplicationProperties.Resolution next;
+        StoreBasedApplicationProperties candidate;
+        try {
+            next = builder.resolve(resolution, changed);
+            candidate = new StoreBasedApplicationProperties(next.storeList, builder.obfuscator);
+            StoreBasedApplicationProperties.Builder.validate(builder.expectedApplicationProperties, candidate);
+        } catch (RuntimeException e) {
+            log.warn("Reloaded configuration from {} was rejected, keeping the previous configuration", changed, e);
+            return false;
+        }
+        StoreBasedApplicationProperties previous = current;
+        resolution = next;
+        current = candidate;
+        log.info("Reloaded configuration from {}", changed);
+        if (!listeners.isEmpty() && dispatcher != null && !closed) {
+            dispatcher.execute(() -> dispatch(previous, candidate));
+        }
+        return true;
+    }
+
+    private void dispatch(StoreBasedApplicationProperties previous, StoreBasedApplicationProperties next) {
+        PropertyChanges all = null;
+        for (ListenerRegistration registration : listeners) {
+            PropertyChanges changes;
+            if (registration.prefix == null) {
+                if (all == null) {
+                    all = PropertyDiff.between(previous, next);
+                }
+                changes = all;
+            } else {
+                changes = PropertyDiff.between(previous, next, registration.prefix);
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+            try {
+                registration.listener.propertiesChanged(changes);
+            } catch (RuntimeException e) {
+                log.warn("Property change listener {} failed", registration.listener, e);
+            }
+        }
+    }
+
+    @Override
+    public PropertyChangeListener.Registration addChangeListener(PropertyChangeListener listener) {
+        return register(null, listener);
+    }
+
+    @Override
+    public PropertyChangeListener.Registration addChangeListener(String prefix, PropertyChangeListener listener) {
+        return register(Objects.requireNonNull(prefix), listener);
+    }
+
+    private synchronized PropertyChangeListener.Registration register(String prefix, PropertyChangeListener listener) {
+        ListenerRegistration registration = new ListenerRegistration(prefix, Objects.requireNonNull(listener));
+        if (dispatcher == null && !closed) {
+            dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "property-config-listeners");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        listeners.add(registration);
+        return registration;
+    }
+
+    private class ListenerRegistration implements PropertyChangeListener.Registration {
+        final String prefix;
+        final PropertyChangeListener listener;
+
+        ListenerRegistration(String prefix, PropertyChangeListener listener) {
+            this.prefix = prefix;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            listeners.remove(this);
+        }
+    }
+
+    @Override
+    public ApplicationProperties snapshot() {
+        return current;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (dispatcher != null) {
+                dispatcher.shutdown(); // pending notifications are still delivered
+            }
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Unable to close file watcher", e);
+        }
+        watcher.interrupt();
+    }
+
+    @Override
+    public Map<String, String> map() {
+        return current.map();
+    }
+
+    @Override
+    public String logObfuscatedProperties() {
+        return current.logObfuscatedProperties();
+    }
+
+    @Override
+    public String get(String name) {
+        return current.get(name);
+    }
+
+    @Override
+    public List<Source> sourcesOf(String name) {
+        return current.sourcesOf(name);
+    }
+
+    @Override
+    public Map<String, String> subMap(String prefix) {
+        return current.subMap(prefix);
+    }
+
+    @Override
+    public ApplicationProperties subTree(String prefix) {
+        return current.subTree(prefix);
+    }
+
+    @Override
+    public String debugAll(boolean debugOverriddenSources) {
+        return current.debugAll(debugOverriddenSources);
+    }
+
+    @Override
+    public int debugAll(Appendable out, String prefix, int offset, int limit, boolean debugOverriddenSources) throws IOException {
+        return current.debugAll(out, prefix, offset, limit, debugOverriddenSources);
+    }
+
+    @Override
+    public int asInt(String name) {
+        return current.asInt(name);
+    }
+
+    @Override
+    public int asInt(String name, int defaultValue) {
+        return current.asInt(name, defaultValue);
+    }
+
+    @Override
+    public long asLong(String name) {
+        return current.asLong(name);
+    }
+
+    @Override
+    public long asLong(String name, long defaultValue) {
+        return current.asLong(name, defaultValue);
+    }
+
+    @Override
+    public boolean asBoolean(String name) {
+        return current.asBoolean(name);
+    }
+
+    @Override
+    public boolean asBoolean(String name, boolean defaultValue) {
+        return current.asBoolean(name, defaultValue);
+    }
+
+    @Override
+    public double asDouble(String name) {
+        return current.asDouble(name);
+    }
+
+    @Override
+    public double asDouble(String name, double defaultValue) {
+        return current.asDouble(name, defaultValue);
+    }
+}
@@ -0,0 +1,137 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.BooleanKey;
+import no.cantara.config.IntKey;
+import no.cantara.config.PropertyKey;
+
+/**
+ * Property handles resolved to a slot in the effective values of a {@link StoreBasedApplicationProperties} instance.
+ * A read is an array read, typed reads go through the shared {@link TypedValueCache}. Handles of properties that are
+ * not present fall back to reading by name from the owning instance, which gives the same defaults and failures as
+ * the name-based methods.
+ */
+class SlotPropertyKeys {
+
+    static class SlotStringKey implements PropertyKey<String> {
+        final String name;
+        final String[] values;
+        final int slot;
+
+        SlotStringKey(String name, String[] values, int slot) {
+            this.name = name;
+            this.values = values;
+            this.slot = slot;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String get() {
+            return slot < 0 ? null : values[slot];
+        }
+
+        @Override
+        public boolean isPresent() {
+            return slot >= 0;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class SlotIntKey implements IntKey {
+        final ApplicationProperties owner;
+        final String name;
+        final TypedValueCache typedValues;
+        final int slot;
+
+        SlotIntKey(ApplicationProperties owner, String name, TypedValueCache typedValues, int slot) {
+            this.owner = owner;
+            this.name = name;
+            this.typedValues = typedValues;
+            this.slot = slot;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return slot >= 0;
+        }
+
+        @Override
+        public int getInt() {
+            if (slot < 0) {
+                return owner.asInt(name);
+            }
+            return typedValues.intValue(slot);
+        }
+
+        @Override
+        public int getInt(int defaultValue) {
+            if (slot < 0) {
+                return defaultValue;
+            }
+            return typedValues.intValue(slot);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class SlotBooleanKey implements BooleanKey {
+        final ApplicationProperties owner;
+        final String name;
+        final TypedValueCache typedValues;
+        final int slot;
+
+        SlotBooleanKey(ApplicationProperties owner, String name, TypedValueCache typedValues, int slot) {
+            this.owner = owner;
+            this.name = name;
+            this.typedValues = typedValues;
+            this.slot = slot;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return slot >= 0;
+        }
+
+        @Override
+        public boolean getBoolean() {
+            if (slot < 0) {
+                return owner.asBoolean(name);
+            }
+            return typedValues.booleanValue(slot);
+        }
+
+        @Override
+        public boolean getBoolean(boolean defaultValue) {
+            if (slot < 0) {
+                return defaultValue;
+            }
+            return typedValues.booleanValue(slot);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package no.cantara.config.store;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The slots of an {@link ImmutablePropertyMap} sorted by key. All keys that start with a given prefix are adjacent in
+ * this order, so the keys of a sub-tree are found by two binary searches and are represented by a range of positions.
+ */
+class SortedKeyIndex {
+
+    private final ImmutablePropertyMap map;
+    private final int[] sortedSlots;
+
+    SortedKeyIndex(ImmutablePropertyMap map) {
+        this.map = map;
+        int size = map.size();
+        String[] keys = new String[size];
+        for (int slot = 0; slot < size; slot++) {
+            keys[slot] = map.keyAt(slot);
+        }
+        Arrays.sort(keys, Comparator.nullsFirst(Comparator.naturalOrder()));
+        this.sortedSlots = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedSlots[i] = map.indexOf(keys[i]); // keys are unique
+        }
+    }
+
+    int size() {
+        return sortedSlots.length;
+    }
+
+    int slotAt(int position) {
+        return sortedSlots[position];
+    }
+
+    /**
+     * @return the first position with a key that is equal to or greater than the effective prefix.
+     */
+    int lowerBound(String prefix, boolean dot) {
+        int low = 0;
+        int high = sortedSlots.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(map.keyAt(sortedSlots[mid]), prefix, dot) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the first position after lowerBound with a key that does not start with the effective prefix.
+     */
+    int upperBound(String prefix, boolean dot, int lowerBound) {
+        int low = lowerBound;
+        int high = sortedSlots.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(map.keyAt(sortedSlots[mid]), prefix, dot) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compare a key against the effective prefix, which is the prefix followed by a '.' if dot is true.
+     *
+     * @return a negative number if the key is ordered before all keys that start with the effective prefix, zero if the
+     * key starts with the effective prefix and a positive number if the key is ordered after all such keys.
+     */
+    static int comparePrefix(String key, String prefix, boolean dot) {
+        if (key == null) {
+            return -1;
+        }
+        int prefixLength = prefix.length();
+        int effectiveLength = prefixLength + (dot ? 1 : 0);
+        int n = Math.min(key.length(), effectiveLength);
+        for (int i = 0; i < n; i++) {
+            char p = i < prefixLength ? prefix.charAt(i) : '.';
+            char k = key.charAt(i);
+            if (k != p) {
+                return k - p;
+            }
+        }
+        return key.length() < effectiveLength ? -1 : 0;
+    }
+}
@@ -0,0 +1,388 @@
+package no.cantara.config.store;
+
+import no.cantara.config.EnvironmentVariableEscaping;
+import no.cantara.config.PropertyObfuscator;
+import no.cantara.config.SourceConfigurationLocationException;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Persists the stores of a built instance in a compact binary file, so that later builds with the same inputs can skip
+ * reading, parsing and merging the configured sources.
+ * <p>
+ * The file is only used when it was written for the same inputs. Inputs are fingerprinted with SHA-256 over, in the
+ * order of the builder steps: the entries of maps and builder values, the URLs and contents of classpath resources,
+ * the paths, sizes and modification times of property-files, and the names and values of the environment-variables
+ * and system-properties that could override a property. An environment-variable or system-property is considered
+ * relevant if it could override any of the cached properties or expected properties, which is a superset of the ones
+ * that could override a property while building, as long as all other inputs are unchanged.
+ * <p>
+ * The file consists of a header, the fingerprint, the escaped names of properties that do not round-trip through
+ * environment-variable escaping, and the properties of every store in precedence order together with the index of the
+ * builder step that created it. Code locations are taken from the builder steps of the current build.
+ */
+class StartupCache {
+
+    private static final Logger log = getLogger(StartupCache.class);
+
+    private static final int MAGIC = 0x50434331; // "PCC1"
+    private static final int VERSION = 1;
+
+    /*
+     * Fingerprints an input of a builder step.
+     */
+    static final class Input {
+        final SourceConfigurationLocationException location;
+        final Consumer<Fingerprint> fingerprint;
+
+        Input(SourceConfigurationLocationException location, Consumer<Fingerprint> fingerprint) {
+            this.location = location;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Path file;
+
+    StartupCache(Path file) {
+        this.file = file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return an instance built from the cache file, or null if there is no cache file or it was written for other
+     * inputs
+     */
+    StoreBasedApplicationProperties load(List<Input> inputs, Set<String> expectedProperties, PropertyObfuscator obfuscator) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            log.debug("No startup cache at '{}'", file);
+            return null;
+        } catch (IOException e) {
+            log.warn("Unable to read startup cache '{}'", file, e);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.info("Ignoring startup cache '{}' written by another version", file);
+                return null;
+            }
+            byte[] fingerprint = new byte[32];
+            in.readFully(fingerprint);
+            Set<String> irregularEscapes = new HashSet<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                irregularEscapes.add(readString(in));
+            }
+            Deque<Store> storeList = new LinkedList<>();
+            Set<String> keys = new HashSet<>(expectedProperties);
+            for (int i = in.readInt(); i > 0; i--) {
+                int step = in.readInt();
+                if (step < 0 || step >= inputs.size()) {
+                    log.info("Ignoring startup cache '{}' written for other builder steps", file);
+                    return null;
+                }
+                String description = readString(in);
+                int size = in.readInt();
+                LinkedHashMap<String, String> valueByKey = new LinkedHashMap<>(Math.max(16, (int) (size / .75f) + 1));
+                for (int j = 0; j < size; j++) {
+                    String key = readString(in);
+                    valueByKey.put(key, readString(in));
+                    keys.add(key);
+                }
+                storeList.addLast(new CachedStore(inputs.get(step).location, description, valueByKey));
+            }
+            if (!Arrays.equals(fingerprint, fingerprint(inputs, keys, irregularEscapes))) {
+                log.info("Startup cache '{}' is stale", file);
+                return null;
+            }
+            log.debug("Using startup cache '{}'", file);
+            return new StoreBasedApplicationProperties(storeList, obfuscator);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable startup cache '{}'", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the stores of a resolution to the cache file, replacing it atomically. Failures are logged, as the cache
+     * only affects startup time.
+     */
+    void write(List<Input> inputs, Set<String> expectedProperties, StoreBasedApplicationProperties.Resolution resolution) {
+        Set<String> keys = new HashSet<>(expectedProperties);
+        for (Store store : resolution.storeList) {
+            store.forEach((key, value) -> keys.add(key));
+        }
+        Set<String> irregularEscapes = new LinkedHashSet<>();
+        if (resolution.escapedEnvironmentVariables) {
+            for (String key : keys) {
+                String envVar = EnvironmentVariableEscaping.escape(key);
+                if (!EnvironmentVariableEscaping.unescape(envVar).equals(key.toLowerCase())) {
+                    irregularEscapes.add(envVar);
+                }
+            }
+        }
+        Path temporary = null;
+        try {
+            Path directory = file.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(fingerprint(inputs, keys, irregularEscapes));
+                out.writeInt(irregularEscapes.size());
+                for (String envVar : irregularEscapes) {
+                    writeString(out, envVar);
+                }
+                out.writeInt(resolution.storeList.size());
+                for (Store store : resolution.storeList) {
+                    List<String> entries = new ArrayList<>();
+                    store.forEach((key, value) -> {
+                        entries.add(key);
+                        entries.add(value);
+                    });
+                    out.writeInt(resolution.stepOfStore.get(store));
+                    writeString(out, store.toString());
+                    out.writeInt(entries.size() / 2);
+                    for (String s : entries) {
+                        writeString(out, s);
+                    }
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.debug("Wrote startup cache '{}'", file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write startup cache '{}'", file, e);
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static byte[] fingerprint(List<Input> inputs, Set<String> keys, Set<String> irregularEscapes) {
+        Fingerprint fingerprint = new Fingerprint(keys, irregularEscapes);
+        fingerprint.integer(inputs.size());
+        for (Input input : inputs) {
+            input.fingerprint.accept(fingerprint);
+        }
+        return fingerprint.digest.digest();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Digest of the inputs of builder steps.
+     */
+    static final class Fingerprint {
+        final MessageDigest digest;
+
+        /*
+         * Keys of all cached properties and expected properties.
+         */
+        private final Set<String> keys;
+
+        /*
+         * Escaped names of keys that do not unescape to the lower-cased key. Together with the keys and the lower-cased
+         * keys they tell whether an environment-variable could override a key, without escaping every key.
+         */
+        private final Set<String> irregularEscapes;
+        private Set<String> lowerCasedKeys;
+
+        private final byte[] buffer = new byte[8192];
+
+        private Fingerprint(Set<String> keys, Set<String> irregularEscapes) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+            this.keys = keys;
+            this.irregularEscapes = irregularEscapes;
+        }
+
+        void integer(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                digest.update((byte) (value >>> shift));
+            }
+        }
+
+        void string(String s) {
+            if (s == null) {
+                integer(-1);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            integer(bytes.length);
+            digest.update(bytes);
+        }
+
+        void strings(Collection<String> strings) {
+            integer(strings.size());
+            for (String s : strings) {
+                string(s);
+            }
+        }
+
+        void map(Map<String, String> map) {
+            integer(map.size());
+            map.forEach((key, value) -> {
+                string(key);
+                string(value);
+            });
+        }
+
+        void classpathResources(String resourcePath) {
+            string(resourcePath);
+            try {
+                Enumeration<URL> resources = ClassLoader.getSystemResources(resourcePath);
+                while (resources.hasMoreElements()) {
+                    URL resource = resources.nextElement();
+                    string(resource.toString());
+                    try (InputStream inputStream = resource.openConnection().getInputStream()) {
+                        long length = 0;
+                        int n;
+                        while ((n = inputStream.read(buffer)) != -1) {
+                            digest.update(buffer, 0, n);
+                            length += n;
+                        }
+                        integer(length);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            integer(-1);
+        }
+
+        void file(Path path) {
+            string(path.toString());
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                integer(attributes.size());
+                integer(attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                integer(-1); // does not exist
+            }
+        }
+
+        void files(FilesystemGlob glob) {
+            string(glob.toString());
+            List<Path> paths = glob.discover();
+            integer(paths.size());
+            for (Path path : paths) {
+                file(path);
+            }
+        }
+
+        void environmentVariables(String prefix, boolean useEscaping) {
+            string(prefix);
+            integer(useEscaping ? 1 : 0);
+            string(Locale.getDefault().toString());
+            Map<String, String> relevant = new TreeMap<>();
+            for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+                String envVar = entry.getKey();
+                if (!envVar.startsWith(prefix)) {
+                    continue;
+                }
+                String stripped = envVar.substring(prefix.length());
+                String propertyKey = useEscaping ? EnvironmentVariableEscaping.unescape(stripped) : stripped;
+                if (isKeyOrLowerCasedKey(propertyKey) || (useEscaping && irregularEscapes.contains(stripped))) {
+                    relevant.put(envVar, entry.getValue());
+                }
+            }
+            map(relevant);
+        }
+
+        private boolean isKeyOrLowerCasedKey(String s) {
+            if (keys.contains(s)) {
+                return true;
+            }
+            if (lowerCasedKeys == null) {
+                lowerCasedKeys = new HashSet<>();
+                for (String key : keys) {
+                    String lowerCased = key.toLowerCase();
+                    if (!lowerCased.equals(key)) {
+                        lowerCasedKeys.add(lowerCased);
+                    }
+                }
+            }
+            return lowerCasedKeys.contains(s);
+        }
+
+        void systemProperties(String prefix) {
+            string(prefix);
+            Map<String, String> relevant = new TreeMap<>();
+            Properties properties = (Properties) System.getProperties().clone();
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                    String name = (String) entry.getKey();
+                    if (name.startsWith(prefix) && keys.contains(name.substring(prefix.length()))) {
+                        relevant.put(name, (String) entry.getValue());
+                    }
+                }
+            }
+            map(relevant);
+        }
+    }
+}
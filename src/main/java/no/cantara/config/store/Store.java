@@ -3,6 +3,7 @@ package no.cantara.config.store;
 import no.cantara.config.SourceConfigurationLocationException;
 
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 interface Store {
 
@@ -12,7 +13,17 @@ interface Store {
      */
     String get(String key);
 
-    void putAllToMap(Map<String, String> map);
+    /**
+     * Perform the given action for every property this store defines, in the order that they are put by
+     * {@link #putAllToMap(Map)}.
+     *
+     * @param action the action to perform with the name and value of every property
+     */
+    void forEach(BiConsumer<String, String> action);
+
+    default void putAllToMap(Map<String, String> map) {
+        forEach(map::put);
+    }
 
     SourceConfigurationLocationException stackWhenConfigured();
 }
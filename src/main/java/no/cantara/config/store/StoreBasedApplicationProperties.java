@@ -1,30 +1,42 @@
 package no.cantara.config.store;
 
 import no.cantara.config.ApplicationProperties;
+import no.cantara.config.BooleanKey;
+import no.cantara.config.DebugUtils;
+import no.cantara.config.IntKey;
+import no.cantara.config.PropertyKey;
+import no.cantara.config.PropertyKeyIndex;
+import no.cantara.config.PropertyObfuscator;
+import no.cantara.config.RefreshableApplicationProperties;
+import no.cantara.config.ReloadableApplicationProperties;
 import no.cantara.config.SourceConfigurationLocationException;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
-public class StoreBasedApplicationProperties implements ApplicationProperties {
+public class StoreBasedApplicationProperties implements RefreshableApplicationProperties {
 
     private static final Logger log = getLogger(StoreBasedApplicationProperties.class);
 
@@ -34,16 +46,47 @@ public class StoreBasedApplicationProperties implements ApplicationProperties {
     private final Deque<Store> storeList;
 
     /*
-     * A very performant immutable map with pre-resolved entries.
+     * A very performant immutable map with pre-resolved entries. The slot of an entry in this map is used to index
+     * typed values and property handles.
      */
-    private final Map<String, String> effectiveProperties;
+    final ImmutablePropertyMap effectiveProperties;
 
-    private final NavigableMap navigableMap;
+    /*
+     * Slots of effectiveProperties in key order, backing zero-copy sub-map views.
+     */
+    final SortedKeyIndex sortedKeys;
+
+    /*
+     * Effective values by slot, shared with effectiveProperties.
+     */
+    final String[] values;
+
+    final TypedValueCache typedValues;
+
+    /*
+     * Sources of each effective property, captured when this instance was built.
+     */
+    final ProvenanceIndex provenance;
+
+    final PropertyObfuscator obfuscator;
+
+    /*
+     * The effective properties with secrets obfuscated, computed when first logged.
+     */
+    private volatile String obfuscatedProperties;
+
+    StoreBasedApplicationProperties(Deque<Store> storeList) {
+        this(storeList, PropertyObfuscator.defaults());
+    }
 
-    private StoreBasedApplicationProperties(Deque<Store> storeList) {
+    StoreBasedApplicationProperties(Deque<Store> storeList, PropertyObfuscator obfuscator) {
         this.storeList = storeList;
-        this.effectiveProperties = Collections.unmodifiableMap(buildMapFromStore());
-        navigableMap = Collections.unmodifiableNavigableMap(new TreeMap<>(effectiveProperties));
+        this.obfuscator = obfuscator;
+        this.effectiveProperties = new ImmutablePropertyMap(buildMapFromStore());
+        this.sortedKeys = new SortedKeyIndex(effectiveProperties);
+        this.values = effectiveProperties.valueArray();
+        this.typedValues = new TypedValueCache(values);
+        this.provenance = new ProvenanceIndex(storeList, effectiveProperties);
     }
 
     @Override
@@ -51,31 +94,182 @@ public class StoreBasedApplicationProperties implements ApplicationProperties {
         return effectiveProperties;
     }
 
+    @Override
+    public String logObfuscatedProperties() {
+        String result = obfuscatedProperties;
+        if (result == null) {
+            result = obfuscator.toString(effectiveProperties);
+            obfuscatedProperties = result;
+        }
+        return result;
+    }
+
     @Override
     public String get(String name) {
         return effectiveProperties.get(name);
     }
 
+    /**
+     * @param name the property name
+     * @return the slot of the property, or -1 if the property is not present or has a null value.
+     */
+    int slotOf(String name) {
+        int slot = effectiveProperties.indexOf(name);
+        if (slot < 0 || values[slot] == null) {
+            return -1;
+        }
+        return slot;
+    }
+
+    @Override
+    public int asInt(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return RefreshableApplicationProperties.super.asInt(name);
+        }
+        return typedValues.intValue(slot);
+    }
+
+    @Override
+    public int asInt(String name, int defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return typedValues.intValue(slot);
+    }
+
+    @Override
+    public long asLong(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return RefreshableApplicationProperties.super.asLong(name);
+        }
+        return typedValues.longValue(slot);
+    }
+
+    @Override
+    public long asLong(String name, long defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return typedValues.longValue(slot);
+    }
+
+    @Override
+    public boolean asBoolean(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return RefreshableApplicationProperties.super.asBoolean(name);
+        }
+        return typedValues.booleanValue(slot);
+    }
+
+    @Override
+    public boolean asBoolean(String name, boolean defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return typedValues.booleanValue(slot);
+    }
+
+    @Override
+    public double asDouble(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return RefreshableApplicationProperties.super.asDouble(name);
+        }
+        return typedValues.doubleValue(slot);
+    }
+
+    @Override
+    public double asDouble(String name, double defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return typedValues.doubleValue(slot);
+    }
+
+    @Override
+    public PropertyKey<String> key(String name) {
+        return new SlotPropertyKeys.SlotStringKey(name, values, slotOf(name));
+    }
+
+    @Override
+    public IntKey intKey(String name) {
+        return new SlotPropertyKeys.SlotIntKey(this, name, typedValues, slotOf(name));
+    }
+
+    @Override
+    public BooleanKey booleanKey(String name) {
+        return new SlotPropertyKeys.SlotBooleanKey(this, name, typedValues, slotOf(name));
+    }
+
+    /**
+     * Get the sources of a property as they were when this instance was built, from a precomputed index.
+     *
+     * @return an immutable list of the sources, in precedence order
+     */
     @Override
     public List<Source> sourcesOf(String name) {
-        List<Source> result = new ArrayList<>(storeList.size());
-        for (Store store : storeList) {
-            if (store.get(name) != null) {
-                result.add(new DebuggableSource(store, name));
-            }
+        int slot = effectiveProperties.indexOf(name);
+        if (slot < 0) {
+            return Collections.emptyList();
         }
-        return result;
+        return provenance.sourcesOf(name, slot);
     }
 
+    /**
+     * Get an immutable view of the properties that start with the given prefix. Creating the view does not copy any
+     * entries, and keys are stripped of the prefix only when iterated. Iteration order is the sorted order of keys.
+     */
     @Override
     public Map<String, String> subMap(String prefix) {
-        Map<String, String> subMap = new LinkedHashMap<>();
-        String effectivePrefix = prefix.endsWith(".") ? prefix : prefix + ".";
-        NavigableMap<String, String> subMapWithPrefix = this.navigableMap.subMap(effectivePrefix, true, effectivePrefix + Character.MAX_VALUE, true);
-        for (Map.Entry<String, String> entry : subMapWithPrefix.entrySet()) {
-            subMap.put(entry.getKey().substring(effectivePrefix.length()), entry.getValue());
+        return new SubMapView(effectiveProperties, sortedKeys, prefix, !prefix.endsWith("."));
+    }
+
+    /**
+     * Write the sources of a page of properties in one pass over the sorted keys and the provenance index.
+     */
+    @Override
+    public int debugAll(Appendable out, String prefix, int offset, int limit, boolean debugOverriddenSources) throws IOException {
+        int from = sortedKeys.lowerBound(prefix, false);
+        int to = sortedKeys.upperBound(prefix, false, from);
+        int first = (int) Math.min(to, (long) from + Math.max(0, offset));
+        int last = (int) Math.min(to, (long) first + Math.max(0, limit));
+        for (int position = first; position < last; position++) {
+            int slot = sortedKeys.slotAt(position);
+            DebugUtils.debugSources(provenance.sourcesOf(effectiveProperties.keyAt(slot), slot), debugOverriddenSources, out);
+        }
+        return last - first;
+    }
+
+    /**
+     * Get a sub-tree view that shares storage, typed values and sources with this instance, instead of building a new
+     * instance from a copy of the sub-map.
+     */
+    @Override
+    public ApplicationProperties subTree(String prefix) {
+        return new SubTreeApplicationProperties(this, prefix);
+    }
+
+    @Override
+    public StoreBasedApplicationProperties refreshSystemProperties() {
+        Deque<Store> refreshed = new LinkedList<>();
+        for (Store store : storeList) {
+            if (store instanceof CachedStore) {
+                throw new UnsupportedOperationException("Unable to refresh system-properties of properties loaded from a startup cache");
+            }
+            if (store instanceof SystemPropertiesStore && ((SystemPropertiesStore) store).isSnapshot()) {
+                refreshed.addLast(((SystemPropertiesStore) store).refresh());
+            } else {
+                refreshed.addLast(store);
+            }
         }
-        return subMap;
+        return new StoreBasedApplicationProperties(refreshed, obfuscator);
     }
 
     Map<String, String> buildMapFromStore() {
@@ -88,27 +282,187 @@ public class StoreBasedApplicationProperties implements ApplicationProperties {
         return map;
     }
 
-    public static class Builder implements ApplicationProperties.Builder {
+    /*
+     * State while creating stores from the configured sources of a builder.
+     */
+    static class Resolution {
         final Deque<Store> storeList = new LinkedList<>();
+
+        /*
+         * Keys defined by base stores and expected properties so far. Environment-variables and system-properties may
+         * only override these keys.
+         */
+        final KeyTracker baseKeys = new KeyTracker();
+
+        /*
+         * File and classpath stores of this resolution, used to avoid reading unchanged sources again when resolving
+         * after a reload.
+         */
+        final Map<Path, FilesystemPropertiesStore> filesystemStores = new LinkedHashMap<>();
+        final Map<String, ClasspathPropertiesStore> classpathStores = new LinkedHashMap<>();
+        final List<FilesystemGlob> globs = new ArrayList<>();
+
+        /*
+         * Index of the builder step that created each store, and whether any step reads escaped environment-variables.
+         */
+        final Map<Store, Integer> stepOfStore = new IdentityHashMap<>();
+        int step;
+        boolean escapedEnvironmentVariables;
+
+        private final Resolution previous;
+        private final Set<Path> changedFiles;
+
+        Resolution() {
+            this(null, Collections.emptySet());
+        }
+
+        /**
+         * @param previous     a previous resolution of the same steps
+         * @param changedFiles files that must be read again, all other sources are reused from the previous resolution
+         */
+        Resolution(Resolution previous, Set<Path> changedFiles) {
+            this.previous = previous;
+            this.changedFiles = changedFiles;
+        }
+
+        void addBaseStore(Store store) {
+            storeList.addFirst(store);
+            stepOfStore.put(store, step);
+            store.forEach((key, value) -> baseKeys.add(key));
+        }
+
+        void addOverridingStore(Store store) {
+            storeList.addFirst(store);
+            stepOfStore.put(store, step);
+        }
+
+        FilesystemPropertiesStore filesystemStore(SourceConfigurationLocationException location, String resourcePath) {
+            Path path = FilesystemPropertiesStore.pathOf(resourcePath);
+            FilesystemPropertiesStore store = reusableFilesystemStore(path);
+            if (store == null) {
+                store = new FilesystemPropertiesStore(location, resourcePath);
+            }
+            filesystemStores.put(path, store);
+            return store;
+        }
+
+        /**
+         * Create stores for the files that match the glob, in the order of their paths. Files are read in parallel.
+         */
+        List<FilesystemPropertiesStore> filesystemStores(SourceConfigurationLocationException location, FilesystemGlob glob) {
+            globs.add(glob);
+            List<Path> paths = glob.discover();
+            FilesystemPropertiesStore[] stores = new FilesystemPropertiesStore[paths.size()];
+            List<Integer> unread = new ArrayList<>();
+            for (int i = 0; i < stores.length; i++) {
+                stores[i] = reusableFilesystemStore(paths.get(i));
+                if (stores[i] == null) {
+                    unread.add(i);
+                }
+            }
+            unread.parallelStream().forEach(i -> stores[i] = new FilesystemPropertiesStore(location, paths.get(i).toString()));
+            for (int i = 0; i < stores.length; i++) {
+                filesystemStores.put(paths.get(i), stores[i]);
+            }
+            return Arrays.asList(stores);
+        }
+
+        /**
+         * @return whether a change to the file would change the stores of this resolution
+         */
+        boolean isWatched(Path path) {
+            if (filesystemStores.containsKey(path)) {
+                return true;
+            }
+            for (FilesystemGlob glob : globs) {
+                if (glob.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private FilesystemPropertiesStore reusableFilesystemStore(Path path) {
+            FilesystemPropertiesStore store = previous == null || changedFiles.contains(path) ? null : previous.filesystemStores.get(path);
+            if (store == null) {
+                store = filesystemStores.get(path);
+            }
+            return store;
+        }
+
+        ClasspathPropertiesStore classpathStore(SourceConfigurationLocationException location, String resourcePath) {
+            ClasspathPropertiesStore store = previous == null ? null : previous.classpathStores.get(resourcePath);
+            if (store == null) {
+                store = classpathStores.get(resourcePath);
+            }
+            if (store == null) {
+                store = new ClasspathPropertiesStore(location, resourcePath);
+            }
+            classpathStores.put(resourcePath, store);
+            return store;
+        }
+    }
+
+    public static class Builder implements ApplicationProperties.Builder {
+        /*
+         * Configured sources in the order they were added. Stores are created from these in one pass when building,
+         * so that the cost of a builder chain does not depend on the number of steps that need the current keys.
+         */
+        final List<Consumer<Resolution>> steps = new ArrayList<>();
+
+        /*
+         * The inputs of each step, used to validate a startup cache.
+         */
+        final List<StartupCache.Input> inputs = new ArrayList<>();
         final Set<String> expectedApplicationProperties = new LinkedHashSet<>();
+        SourceConfigurationLocationException.Capture sourceLocationCapture = SourceConfigurationLocationException.Capture.fromSystemProperty();
+        StartupCache startupCache;
+        PropertyObfuscator obfuscator = PropertyObfuscator.defaults();
+
+        private void step(SourceConfigurationLocationException location, Consumer<StartupCache.Fingerprint> input, Consumer<Resolution> step) {
+            inputs.add(new StartupCache.Input(location, input));
+            steps.add(step);
+        }
+
+        /*
+         * Location of the code calling the builder method that calls this method.
+         */
+        private SourceConfigurationLocationException location() {
+            return SourceConfigurationLocationException.capture(sourceLocationCapture, 2);
+        }
+
+        @Override
+        public ApplicationProperties.Builder sourceLocationCapture(SourceConfigurationLocationException.Capture capture) {
+            this.sourceLocationCapture = Objects.requireNonNull(capture);
+            return this;
+        }
 
-        private void validate(Map<String, String> properties) {
+        static void validate(Set<String> expectedApplicationProperties, StoreBasedApplicationProperties applicationProperties) {
             if (expectedApplicationProperties.size() > 0) {
-                log.info("*********************");
-                log.info("The application has resolved the following properties");
-                log.info(ApplicationProperties.logObfuscatedProperties(properties));
-                log.info("*********************");
+                if (log.isInfoEnabled()) {
+                    log.info("*********************");
+                    log.info("The application has resolved the following properties");
+                    log.info(applicationProperties.logObfuscatedProperties());
+                    log.info("*********************");
+                }
+                final ImmutablePropertyMap properties = applicationProperties.effectiveProperties;
                 final Set<String> expectedKeys = expectedApplicationProperties;
-                final List<String> undefinedProperties = expectedKeys.stream().filter(expectedPropertyName -> !properties.containsKey(expectedPropertyName)).collect(toList());
+                // one hash lookup per expected key, and one set lookup per property
+                final List<String> undefinedProperties = new ArrayList<>();
+                final List<String> undefinedValues = new ArrayList<>();
+                for (String expectedPropertyName : expectedKeys) {
+                    int slot = properties.indexOf(expectedPropertyName);
+                    if (slot < 0) {
+                        undefinedProperties.add(expectedPropertyName);
+                    } else if (applicationProperties.values[slot] == null || applicationProperties.values[slot].isEmpty()) {
+                        undefinedValues.add(expectedPropertyName);
+                    }
+                }
                 if (!undefinedProperties.isEmpty()) {
                     final String message = "Expected properties is not loaded " + undefinedProperties;
                     log.error(message);
                     throw new RuntimeException(message);
                 }
-                final List<String> undefinedValues = expectedKeys.stream()
-                        .filter(expectedPropertyName ->
-                                properties.get(expectedPropertyName) == null || properties.get(expectedPropertyName).isEmpty()
-                        ).collect(toList());
                 if (!undefinedValues.isEmpty()) {
                     final String message = "Expected properties is defined without value " + undefinedValues;
                     log.error(message);
@@ -140,78 +494,144 @@ public class StoreBasedApplicationProperties implements ApplicationProperties {
                         return fields;
                     }).flatMap(Collection::stream)
                     .collect(Collectors.toList());
+            return expectedProperties(propertyNames);
+        }
+
+        @Override
+        public ApplicationProperties.Builder expectedProperties(PropertyKeyIndex... expectedApplicationProperties) {
+            final List<String> propertyNames = new ArrayList<>();
+            for (PropertyKeyIndex index : expectedApplicationProperties) {
+                propertyNames.addAll(index.keys());
+            }
+            return expectedProperties(propertyNames);
+        }
+
+        private ApplicationProperties.Builder expectedProperties(List<String> propertyNames) {
             this.expectedApplicationProperties.addAll(propertyNames);
+            step(null, input -> {
+                input.string("expected");
+                input.strings(propertyNames);
+            }, resolution -> resolution.baseKeys.addAll(propertyNames));
             return this;
         }
 
         @Override
         public ApplicationProperties.Builder map(Map<String, String> map) {
-            storeList.addFirst(new MapStore(new SourceConfigurationLocationException(1), map, 0));
+            MapStore store = new MapStore(location(), map, 0);
+            step(store.stackWhenConfigured(), input -> {
+                input.string("map");
+                input.map(store.valueByKey);
+            }, resolution -> resolution.addBaseStore(store));
             return this;
         }
 
         @Override
         public ApplicationProperties.Builder classpathPropertiesFile(String resourcePath) {
-            storeList.addFirst(new ClasspathPropertiesStore(new SourceConfigurationLocationException(1), resourcePath));
+            SourceConfigurationLocationException location = location();
+            step(location, input -> {
+                input.string("classpath");
+                input.classpathResources(resourcePath);
+            }, resolution -> resolution.addBaseStore(resolution.classpathStore(location, resourcePath)));
             return this;
         }
 
         @Override
         public ApplicationProperties.Builder filesystemPropertiesFile(String resourcePath) {
-            storeList.addFirst(new FilesystemPropertiesStore(new SourceConfigurationLocationException(1), resourcePath));
+            SourceConfigurationLocationException location = location();
+            step(location, input -> {
+                input.string("file");
+                input.file(FilesystemPropertiesStore.pathOf(resourcePath));
+            }, resolution -> resolution.addBaseStore(resolution.filesystemStore(location, resourcePath)));
             return this;
         }
 
         @Override
-        public ApplicationProperties.Builder enableEnvironmentVariables() {
-            Set<String> basePropertyKeys = new LinkedHashSet<>(new StoreBasedApplicationProperties(new LinkedList<>(storeList)).map().keySet());
-            basePropertyKeys.addAll(expectedApplicationProperties);
-            storeList.addFirst(new EnvironmentStore(basePropertyKeys, new SourceConfigurationLocationException(1), "", true));
+        public ApplicationProperties.Builder filesystemPropertiesFiles(String glob) {
+            SourceConfigurationLocationException location = location();
+            FilesystemGlob filesystemGlob = new FilesystemGlob(glob);
+            step(location, input -> {
+                input.string("files");
+                input.files(filesystemGlob);
+            }, resolution -> resolution.filesystemStores(location, filesystemGlob).forEach(resolution::addBaseStore));
             return this;
         }
 
+        @Override
+        public ApplicationProperties.Builder enableEnvironmentVariables() {
+            return environmentVariables(location(), "", true);
+        }
+
         @Override
         public ApplicationProperties.Builder enableEnvironmentVariables(String prefix) {
-            Set<String> basePropertyKeys = new LinkedHashSet<>(new StoreBasedApplicationProperties(new LinkedList<>(storeList)).map().keySet());
-            basePropertyKeys.addAll(expectedApplicationProperties);
-            storeList.addFirst(new EnvironmentStore(basePropertyKeys, new SourceConfigurationLocationException(1), prefix, true));
-            return this;
+            return environmentVariables(location(), prefix, true);
         }
 
         @Override
         public ApplicationProperties.Builder enableEnvironmentVariablesWithoutEscaping() {
-            Set<String> basePropertyKeys = new LinkedHashSet<>(new StoreBasedApplicationProperties(new LinkedList<>(storeList)).map().keySet());
-            basePropertyKeys.addAll(expectedApplicationProperties);
-            storeList.addFirst(new EnvironmentStore(basePropertyKeys, new SourceConfigurationLocationException(1), "", false));
+            return environmentVariables(location(), "", false);
+        }
+
+        private ApplicationProperties.Builder environmentVariables(SourceConfigurationLocationException location, String prefix, boolean useEscaping) {
+            step(location, input -> {
+                input.string("environment");
+                input.environmentVariables(prefix, useEscaping);
+            }, resolution -> {
+                resolution.escapedEnvironmentVariables |= useEscaping;
+                resolution.addOverridingStore(new EnvironmentStore(resolution.baseKeys.snapshot(), location, prefix, useEscaping));
+            });
             return this;
         }
 
         @Override
         public ApplicationProperties.Builder enableSystemProperties() {
-            Set<String> basePropertyKeys = new LinkedHashSet<>(new StoreBasedApplicationProperties(new LinkedList<>(storeList)).map().keySet());
-            basePropertyKeys.addAll(expectedApplicationProperties);
-            storeList.addFirst(new SystemPropertiesStore(basePropertyKeys, new SourceConfigurationLocationException(1), ""));
-            return this;
+            return systemProperties(location(), "", false);
         }
 
         @Override
         public ApplicationProperties.Builder enableSystemProperties(String prefix) {
-            Set<String> basePropertyKeys = new LinkedHashSet<>(new StoreBasedApplicationProperties(new LinkedList<>(storeList)).map().keySet());
-            basePropertyKeys.addAll(expectedApplicationProperties);
-            storeList.addFirst(new SystemPropertiesStore(basePropertyKeys, new SourceConfigurationLocationException(1), prefix));
+            return systemProperties(location(), prefix, false);
+        }
+
+        @Override
+        public ApplicationProperties.Builder enableSystemPropertiesSnapshot() {
+            return systemProperties(location(), "", true);
+        }
+
+        @Override
+        public ApplicationProperties.Builder enableSystemPropertiesSnapshot(String prefix) {
+            return systemProperties(location(), prefix, true);
+        }
+
+        private ApplicationProperties.Builder systemProperties(SourceConfigurationLocationException location, String prefix, boolean snapshot) {
+            step(location, input -> {
+                input.string(snapshot ? "system-properties-snapshot" : "system-properties");
+                input.systemProperties(prefix);
+            }, resolution -> resolution.addOverridingStore(new SystemPropertiesStore(resolution.baseKeys.snapshot(), location, prefix, snapshot)));
+            return this;
+        }
+
+        @Override
+        public ApplicationProperties.Builder obfuscator(PropertyObfuscator obfuscator) {
+            this.obfuscator = Objects.requireNonNull(obfuscator);
+            return this;
+        }
+
+        @Override
+        public ApplicationProperties.Builder startupCache(String file) {
+            this.startupCache = new StartupCache(Paths.get(file));
             return this;
         }
 
         @Override
         public ApplicationProperties.Builder property(String name, String value) {
-            return new ValueBuilderStore(new SourceConfigurationLocationException(1))
+            return new ValueBuilderStore(location())
                     .put(name, value)
                     .end();
         }
 
         @Override
         public ValueBuilder values() {
-            return new ValueBuilderStore(new SourceConfigurationLocationException(1));
+            return new ValueBuilderStore(location());
         }
 
         class ValueBuilderStore implements ValueBuilder {
@@ -230,17 +650,51 @@ public class StoreBasedApplicationProperties implements ApplicationProperties {
 
             @Override
             public ApplicationProperties.Builder end() {
-                storeList.addFirst(new MapStore(locationException, map, 1));
+                MapStore store = new MapStore(locationException, map, 1);
+                step(locationException, input -> {
+                    input.string("values");
+                    input.map(store.valueByKey);
+                }, resolution -> resolution.addBaseStore(store));
                 return Builder.this;
             }
         }
 
+        Resolution resolve(Resolution previous, Set<Path> changedFiles) {
+            Resolution resolution = new Resolution(previous, changedFiles);
+            for (int i = 0; i < steps.size(); i++) {
+                resolution.step = i;
+                steps.get(i).accept(resolution);
+            }
+            return resolution;
+        }
+
         @Override
         public StoreBasedApplicationProperties build() {
-            StoreBasedApplicationProperties applicationProperties = new StoreBasedApplicationProperties(storeList);
-            validate(applicationProperties.effectiveProperties);
+            if (startupCache != null) {
+                StoreBasedApplicationProperties cached = startupCache.load(inputs, expectedApplicationProperties, obfuscator);
+                if (cached != null) {
+                    validate(expectedApplicationProperties, cached);
+                    return cached;
+                }
+            }
+            Resolution resolution = resolve(null, Collections.emptySet());
+            StoreBasedApplicationProperties applicationProperties = new StoreBasedApplicationProperties(resolution.storeList, obfuscator);
+            validate(expectedApplicationProperties, applicationProperties);
+            if (startupCache != null) {
+                startupCache.write(inputs, expectedApplicationProperties, resolution);
+            }
             return applicationProperties;
         }
+
+        @Override
+        public ReloadableApplicationProperties buildReloadable(Duration debounce) {
+            Builder copy = new Builder();
+            copy.steps.addAll(steps);
+            copy.inputs.addAll(inputs);
+            copy.expectedApplicationProperties.addAll(expectedApplicationProperties);
+            copy.obfuscator = obfuscator;
+            return new ReloadingApplicationProperties(copy, debounce);
+        }
     }
 
     @Override
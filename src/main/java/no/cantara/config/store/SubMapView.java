@@ -0,0 +1,142 @@
+package no.cantara.config.store;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable view of the entries of an {@link ImmutablePropertyMap} that start with an effective prefix, with the
+ * prefix stripped from the keys. Creating a view costs two binary searches in the {@link SortedKeyIndex}, lookups go
+ * directly to the parent map without concatenating the prefix, and stripped keys are only created when iterating.
+ * Iteration order is the sorted order of the keys.
+ */
+class SubMapView extends AbstractMap<String, String> {
+
+    final ImmutablePropertyMap map;
+    final SortedKeyIndex index;
+    final String prefix;
+    final boolean dot;
+    final int from;
+    final int to;
+
+    private Set<Entry<String, String>> entrySet;
+
+    SubMapView(ImmutablePropertyMap map, SortedKeyIndex index, String prefix, boolean dot) {
+        this.map = map;
+        this.index = index;
+        this.prefix = prefix;
+        this.dot = dot;
+        this.from = index.lowerBound(prefix, dot);
+        this.to = index.upperBound(prefix, dot, from);
+    }
+
+    int prefixLength() {
+        return prefix.length() + (dot ? 1 : 0);
+    }
+
+    /**
+     * @return the slot in the parent map of the given stripped key, or -1 if not present in this view.
+     */
+    int indexOf(Object key) {
+        if (!(key instanceof String) || from == to) {
+            return -1;
+        }
+        return map.indexOf(prefix, dot, (String) key);
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : map.valueAt(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String getOrDefault(Object key, String defaultValue) {
+        int slot = indexOf(key);
+        return slot < 0 ? defaultValue : map.valueAt(slot);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        int next = from;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < to;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (next >= to) {
+                                throw new NoSuchElementException();
+                            }
+                            int slot = index.slotAt(next++);
+                            return new SimpleImmutableEntry<>(map.keyAt(slot).substring(prefixLength()), map.valueAt(slot));
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry)) {
+                        return false;
+                    }
+                    Entry<?, ?> e = (Entry<?, ?>) o;
+                    int slot = indexOf(e.getKey());
+                    return slot >= 0 && Objects.equals(map.valueAt(slot), e.getValue());
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+        return es;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
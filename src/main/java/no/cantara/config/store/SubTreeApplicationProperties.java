@@ -0,0 +1,167 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.BooleanKey;
+import no.cantara.config.IntKey;
+import no.cantara.config.PropertyKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A sub-tree of a {@link StoreBasedApplicationProperties} instance that shares all storage with its parent. Property
+ * names are resolved relative to the prefix of the sub-tree, typed values and property handles use the slots and
+ * typed value cache of the parent. Sources reported by {@link #sourcesOf(String)} are the sources of the parent, and
+ * hence report full property names.
+ */
+class SubTreeApplicationProperties implements ApplicationProperties {
+
+    private final StoreBasedApplicationProperties parent;
+    private final String effectivePrefix;
+    private final SubMapView view;
+
+    SubTreeApplicationProperties(StoreBasedApplicationProperties parent, String prefix) {
+        this.parent = parent;
+        this.effectivePrefix = prefix.endsWith(".") ? prefix : prefix + ".";
+        this.view = (SubMapView) parent.subMap(prefix);
+    }
+
+    int slotOf(String name) {
+        int slot = view.indexOf(name);
+        if (slot < 0 || parent.values[slot] == null) {
+            return -1;
+        }
+        return slot;
+    }
+
+    @Override
+    public Map<String, String> map() {
+        return view;
+    }
+
+    @Override
+    public String get(String name) {
+        return view.get(name);
+    }
+
+    @Override
+    public List<Source> sourcesOf(String name) {
+        return parent.sourcesOf(effectivePrefix + name);
+    }
+
+    @Override
+    public Map<String, String> subMap(String prefix) {
+        return parent.subMap(effectivePrefix + prefix);
+    }
+
+    @Override
+    public ApplicationProperties subTree(String prefix) {
+        return new SubTreeApplicationProperties(parent, effectivePrefix + prefix);
+    }
+
+    @Override
+    public int asInt(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return ApplicationProperties.super.asInt(name);
+        }
+        return parent.typedValues.intValue(slot);
+    }
+
+    @Override
+    public int asInt(String name, int defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return parent.typedValues.intValue(slot);
+    }
+
+    @Override
+    public long asLong(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return ApplicationProperties.super.asLong(name);
+        }
+        return parent.typedValues.longValue(slot);
+    }
+
+    @Override
+    public long asLong(String name, long defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return parent.typedValues.longValue(slot);
+    }
+
+    @Override
+    public boolean asBoolean(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return ApplicationProperties.super.asBoolean(name);
+        }
+        return parent.typedValues.booleanValue(slot);
+    }
+
+    @Override
+    public boolean asBoolean(String name, boolean defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return parent.typedValues.booleanValue(slot);
+    }
+
+    @Override
+    public double asDouble(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return ApplicationProperties.super.asDouble(name);
+        }
+        return parent.typedValues.doubleValue(slot);
+    }
+
+    @Override
+    public double asDouble(String name, double defaultValue) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return parent.typedValues.doubleValue(slot);
+    }
+
+    @Override
+    public PropertyKey<String> key(String name) {
+        return new SlotPropertyKeys.SlotStringKey(name, parent.values, slotOf(name));
+    }
+
+    @Override
+    public IntKey intKey(String name) {
+        return new SlotPropertyKeys.SlotIntKey(this, name, parent.typedValues, slotOf(name));
+    }
+
+    @Override
+    public BooleanKey booleanKey(String name) {
+        return new SlotPropertyKeys.SlotBooleanKey(this, name, parent.typedValues, slotOf(name));
+    }
+
+    @Override
+    public String toString() {
+        return "SubTree '" + effectivePrefix + "'";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SubTreeApplicationProperties that = (SubTreeApplicationProperties) o;
+        return parent.equals(that.parent) && effectivePrefix.equals(that.effectivePrefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parent, effectivePrefix);
+    }
+}
@@ -2,22 +2,59 @@ package no.cantara.config.store;
 
 import no.cantara.config.SourceConfigurationLocationException;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 class SystemPropertiesStore extends AbstractStore {
 
     private final Set<String> basePropertyKeys;
     private final String prefix;
 
+    /*
+     * Overrides copied from system-properties when the store was created, or null if the store reads system-properties
+     * on every call.
+     */
+    private final Map<String, String> snapshot;
+
     SystemPropertiesStore(Set<String> basePropertyKeys, SourceConfigurationLocationException location, String prefix) {
+        this(basePropertyKeys, location, prefix, false);
+    }
+
+    SystemPropertiesStore(Set<String> basePropertyKeys, SourceConfigurationLocationException location, String prefix, boolean snapshot) {
         super(location);
         this.basePropertyKeys = basePropertyKeys;
         this.prefix = prefix;
+        if (snapshot) {
+            Map<String, String> overrides = new LinkedHashMap<>();
+            // clone to copy under a single lock, iterating the live properties may fail with concurrent modifications
+            Properties properties = (Properties) System.getProperties().clone();
+            forEachOverride(properties, overrides::put);
+            this.snapshot = Collections.unmodifiableMap(overrides);
+        } else {
+            this.snapshot = null;
+        }
+    }
+
+    boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return a new store with a snapshot of the current system-properties, overriding the same keys as this store
+     */
+    SystemPropertiesStore refresh() {
+        return new SystemPropertiesStore(basePropertyKeys, stackWhenConfigured(), prefix, true);
     }
 
     @Override
     public String get(String key) {
+        if (snapshot != null) {
+            return snapshot.get(key);
+        }
         if (!basePropertyKeys.contains(key)) {
             return null; // key does not override an existing property from a base store
         }
@@ -25,13 +62,21 @@ class SystemPropertiesStore extends AbstractStore {
     }
 
     @Override
-    public void putAllToMap(Map<String, String> map) {
-        for (Map.Entry<Object, Object> entry : System.getProperties().entrySet()) {
+    public void forEach(BiConsumer<String, String> action) {
+        if (snapshot != null) {
+            snapshot.forEach(action);
+            return;
+        }
+        forEachOverride(System.getProperties(), action);
+    }
+
+    private void forEachOverride(Properties properties, BiConsumer<String, String> action) {
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
             if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
                 if (((String) entry.getKey()).startsWith(prefix)) {
                     String strippedKey = ((String) entry.getKey()).substring(prefix.length());
                     if (basePropertyKeys.contains(strippedKey)) {
-                        map.put(strippedKey, (String) entry.getValue());
+                        action.accept(strippedKey, (String) entry.getValue());
                     } else {
                         // not an override, filter out
                     }
@@ -0,0 +1,157 @@
+package no.cantara.config.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lazily filled cache of parsed primitive values, indexed by the slot of a property in the effective values array.
+ * Parsed values are kept in one primitive array per type, so repeated typed reads of the same property are a volatile
+ * read of the slot state followed by a plain array read, without boxing.
+ * <p>
+ * Thread-safety: a value is always written to its array before the corresponding state bit is published with a CAS,
+ * so any thread observing the bit also observes the value. Concurrent first reads of the same slot may parse the same
+ * string more than once, which is harmless as the result is identical.
+ * <p>
+ * Parse failures are cached as well, and the original exception instance is re-thrown on subsequent reads so that a
+ * bad value does not fill in a new stack-trace on every call.
+ */
+class TypedValueCache {
+
+    private static final int INT_PARSED = 1;
+    private static final int INT_FAILED = 1 << 1;
+    private static final int LONG_PARSED = 1 << 2;
+    private static final int LONG_FAILED = 1 << 3;
+    private static final int DOUBLE_PARSED = 1 << 4;
+    private static final int DOUBLE_FAILED = 1 << 5;
+    private static final int BOOLEAN_PARSED = 1 << 6;
+    private static final int BOOLEAN_TRUE = 1 << 7;
+
+    private final String[] values;
+    private final AtomicIntegerArray state;
+
+    /*
+     * Allocated on first use of the respective type, most instances only ever read a few types.
+     */
+    private volatile int[] ints;
+    private volatile long[] longs;
+    private volatile double[] doubles;
+
+    /*
+     * Failures are expected to be rare, keyed by slot and failure-bit.
+     */
+    private final Map<Long, NumberFormatException> failures = new ConcurrentHashMap<>();
+
+    TypedValueCache(String[] values) {
+        this.values = values;
+        this.state = new AtomicIntegerArray(values.length);
+    }
+
+    int intValue(int slot) {
+        int s = state.get(slot);
+        if ((s & INT_PARSED) != 0) {
+            return ints[slot];
+        }
+        if ((s & INT_FAILED) != 0) {
+            throw failures.get(failureKey(slot, INT_FAILED));
+        }
+        int[] array = ints;
+        if (array == null) {
+            synchronized (this) {
+                if ((array = ints) == null) {
+                    ints = array = new int[values.length];
+                }
+            }
+        }
+        int value;
+        try {
+            value = Integer.parseInt(values[slot]);
+        } catch (NumberFormatException e) {
+            throw fail(slot, INT_FAILED, e);
+        }
+        array[slot] = value;
+        publish(slot, INT_PARSED);
+        return value;
+    }
+
+    long longValue(int slot) {
+        int s = state.get(slot);
+        if ((s & LONG_PARSED) != 0) {
+            return longs[slot];
+        }
+        if ((s & LONG_FAILED) != 0) {
+            throw failures.get(failureKey(slot, LONG_FAILED));
+        }
+        long[] array = longs;
+        if (array == null) {
+            synchronized (this) {
+                if ((array = longs) == null) {
+                    longs = array = new long[values.length];
+                }
+            }
+        }
+        long value;
+        try {
+            value = Long.parseLong(values[slot]);
+        } catch (NumberFormatException e) {
+            throw fail(slot, LONG_FAILED, e);
+        }
+        array[slot] = value;
+        publish(slot, LONG_PARSED);
+        return value;
+    }
+
+    double doubleValue(int slot) {
+        int s = state.get(slot);
+        if ((s & DOUBLE_PARSED) != 0) {
+            return doubles[slot];
+        }
+        if ((s & DOUBLE_FAILED) != 0) {
+            throw failures.get(failureKey(slot, DOUBLE_FAILED));
+        }
+        double[] array = doubles;
+        if (array == null) {
+            synchronized (this) {
+                if ((array = doubles) == null) {
+                    doubles = array = new double[values.length];
+                }
+            }
+        }
+        double value;
+        try {
+            value = Double.parseDouble(values[slot]);
+        } catch (NumberFormatException e) {
+            throw fail(slot, DOUBLE_FAILED, e);
+        }
+        array[slot] = value;
+        publish(slot, DOUBLE_PARSED);
+        return value;
+    }
+
+    boolean booleanValue(int slot) {
+        int s = state.get(slot);
+        if ((s & BOOLEAN_PARSED) != 0) {
+            return (s & BOOLEAN_TRUE) != 0;
+        }
+        boolean value = Boolean.parseBoolean(values[slot]);
+        publish(slot, value ? BOOLEAN_PARSED | BOOLEAN_TRUE : BOOLEAN_PARSED);
+        return value;
+    }
+
+    private NumberFormatException fail(int slot, int failedBit, NumberFormatException e) {
+        NumberFormatException previous = failures.putIfAbsent(failureKey(slot, failedBit), e);
+        publish(slot, failedBit);
+        return previous != null ? previous : e;
+    }
+
+    private void publish(int slot, int bits) {
+        int s;
+        do {
+            s = state.get(slot);
+        } while (!state.compareAndSet(slot, s, s | bits));
+    }
+
+    private static Long failureKey(int slot, int failedBit) {
+        return ((long) slot << 8) | failedBit;
+    }
+}
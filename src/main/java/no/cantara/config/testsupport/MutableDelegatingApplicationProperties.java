@@ -1,7 +1,12 @@
 package no.cantara.config.testsupport;
 
 import no.cantara.config.ApplicationProperties;
+import no.cantara.config.PropertyKeyIndex;
+import no.cantara.config.PropertyObfuscator;
+import no.cantara.config.ReloadableApplicationProperties;
+import no.cantara.config.SourceConfigurationLocationException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -49,11 +54,21 @@ public class MutableDelegatingApplicationProperties implements ApplicationProper
 
         final AtomicReference<MutableDelegatingApplicationProperties> instanceRef = new AtomicReference<>();
 
+        @Override
+        public Builder sourceLocationCapture(SourceConfigurationLocationException.Capture capture) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Builder expectedProperties(Class... expectedApplicationProperties) {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public Builder expectedProperties(PropertyKeyIndex... expectedApplicationProperties) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Builder classpathPropertiesFile(String resourcePath) {
             throw new UnsupportedOperationException();
@@ -64,6 +79,11 @@ public class MutableDelegatingApplicationProperties implements ApplicationProper
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public Builder filesystemPropertiesFiles(String glob) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Builder map(Map<String, String> map) {
             throw new UnsupportedOperationException();
@@ -99,6 +119,16 @@ public class MutableDelegatingApplicationProperties implements ApplicationProper
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public Builder enableSystemPropertiesSnapshot() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Builder enableSystemPropertiesSnapshot(String prefix) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Builder property(String name, String value) {
             throw new UnsupportedOperationException();
@@ -109,6 +139,21 @@ public class MutableDelegatingApplicationProperties implements ApplicationProper
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public Builder startupCache(String file) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Builder obfuscator(PropertyObfuscator obfuscator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReloadableApplicationProperties buildReloadable(Duration debounce) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public MutableDelegatingApplicationProperties build() {
             MutableDelegatingApplicationProperties instance = instanceRef.get();
@@ -2,9 +2,16 @@ package no.cantara.config;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 
 public class ApplicationPropertiesDebugTest {
 
@@ -61,4 +68,78 @@ public class ApplicationPropertiesDebugTest {
         System.out.printf("WITHOUT%n");
         System.out.printf("%s%n", instance.debugAll(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void thatCodeLocationPointsToBuilderCallerForAllCaptureModes() {
+        for (SourceConfigurationLocationException.Capture capture : new SourceConfigurationLocationException.Capture[]{
+                SourceConfigurationLocationException.Capture.FULL_STACK,
+                SourceConfigurationLocationException.Capture.SIGNIFICANT_FRAME}) {
+            ApplicationProperties instance = ApplicationProperties.builder()
+                    .sourceLocationCapture(capture)
+                    .map(Collections.singletonMap("map.key", "map.value"))
+                    .property("single.key", "single.value")
+                    .values().put("values.key", "values.value").end()
+                    .build();
+            for (String key : new String[]{"map.key", "single.key", "values.key"}) {
+                String codeLocation = instance.sourcesOf(key).get(0).stackTraceElement().getCodeLocation();
+                assertThat(codeLocation)
+                        .as("%s %s", capture, key)
+                        .contains(ApplicationPropertiesDebugTest.class.getName() + ".thatCodeLocationPointsToBuilderCallerForAllCaptureModes");
+            }
+        }
+    }
+
+    @Test
+    public void thatSignificantFrameCaptureDoesNotKeepStackTrace() {
+        ApplicationProperties instance = ApplicationProperties.builder()
+                .sourceLocationCapture(SourceConfigurationLocationException.Capture.SIGNIFICANT_FRAME)
+                .property("key", "value")
+                .build();
+        assertThat(instance.sourcesOf("key").get(0).stackTraceElement().getStackTrace()).isEmpty();
+    }
+
+    @Test
+    public void thatCodeLocationIsUnknownWhenCaptureIsDisabled() {
+        ApplicationProperties instance = ApplicationProperties.builder()
+                .sourceLocationCapture(SourceConfigurationLocationException.Capture.NONE)
+                .property("key", "value")
+                .build();
+        SourceConfigurationLocationException location = instance.sourcesOf("key").get(0).stackTraceElement();
+        assertThat(location.getStackTrace()).isEmpty();
+        assertThat(location.getCodeLocation()).isEqualTo("<unknown location>");
+        System.out.printf("%s%n", instance.debugAll(true));
+    }
+
+    @Test
+    public void thatStreamedDumpIsPagedInNameOrder() throws IOException {
+        ApplicationProperties instance = ApplicationProperties.builder()
+                .property("server.port", "8080")
+                .property("base.url", "http://localhost")
+                .property("server.host", "localhost")
+                .property("server.port", "8443")
+                .property("timeout", "5")
+                .build();
+
+        StringBuilder expected = new StringBuilder();
+        for (String name : new String[]{"base.url", "server.host", "server.port", "timeout"}) {
+            DebugUtils.debugSources(instance.sourcesOf(name), true, expected);
+        }
+        StringWriter all = new StringWriter();
+        instance.debugAll(all, true);
+        assertThat(all.toString()).isEqualTo(expected.toString());
+
+        List<String> pages = new ArrayList<>();
+        int offset = 0;
+        int written;
+        do {
+            StringBuilder page = new StringBuilder();
+            written = instance.debugAll(page, "server.", offset, 1, false);
+            offset += written;
+            pages.add(page.toString());
+        } while (written == 1);
+        assertThat(pages).hasSize(3);
+        assertThat(pages.get(0)).startsWith("- effective: server.host='localhost'");
+        assertThat(pages.get(1)).startsWith("- effective: server.port='8443'").doesNotContain("other:");
+        assertThat(pages.get(2)).isEmpty();
+    }
+}
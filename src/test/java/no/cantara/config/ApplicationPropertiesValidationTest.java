@@ -4,6 +4,8 @@ import no.cantara.config.testsupport.ApplicationPropertiesTestHelper;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 
 public class ApplicationPropertiesValidationTest {
 
@@ -59,6 +61,24 @@ public class ApplicationPropertiesValidationTest {
 
     }
 
+    @Test
+    public void indexOfExpectedProperties() {
+        PropertyKeyIndex index = () -> Arrays.asList(MyExpectedApplicationProperties.POSTGRES_URL);
+        ApplicationProperties.builder()
+                .property(MyExpectedApplicationProperties.POSTGRES_URL, "postgres-value")
+                .property(ApiExpectedApplicationProperties.BASE_URL, "http-value")
+                .expectedProperties(index)
+                .expectedProperties(ApiExpectedApplicationProperties.class)
+                .buildAndSetStaticSingleton();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void exceptionOnMissingIndexedPropertyKey() {
+        ApplicationProperties.builder()
+                .expectedProperties(() -> Arrays.asList(MyExpectedApplicationProperties.POSTGRES_URL))
+                .buildAndSetStaticSingleton();
+    }
+
     public class MyExpectedApplicationProperties {
 
         public static final String POSTGRES_URL = "postgres.url";
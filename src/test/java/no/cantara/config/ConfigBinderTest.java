@@ -0,0 +1,142 @@
+package no.cantara.config;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConfigBinderTest {
+
+    enum Mode {
+        ACTIVE, PASSIVE
+    }
+
+    public static class Tenant {
+        String name;
+        int connectTimeout = 30;
+        Boolean enabled;
+        Mode mode;
+        long maxBytes;
+        private String host;
+        transient String ignored;
+
+        public void setHost(String host) {
+            this.host = "setter:" + host;
+        }
+    }
+
+    private static ApplicationProperties properties() {
+        return ApplicationProperties.builder()
+                .values()
+                .put("tenant.a.name", "A")
+                .put("tenant.a.connect-timeout", "5")
+                .put("tenant.a.ENABLED", "true")
+                .put("tenant.a.mode", "passive")
+                .put("tenant.a.max_bytes", "1048576")
+                .put("tenant.a.host", "a.example.com")
+                .put("tenant.a.ignored", "value")
+                .put("tenant.a.unknown", "value")
+                .put("tenant.b.name", "B")
+                .end()
+                .build();
+    }
+
+    @Test
+    public void thatPropertiesAreBoundWithRelaxedNames() {
+        Tenant a = properties().bind("tenant.a", Tenant.class);
+        assertThat(a.name).isEqualTo("A");
+        assertThat(a.connectTimeout).isEqualTo(5);
+        assertThat(a.enabled).isTrue();
+        assertThat(a.mode).isEqualTo(Mode.PASSIVE);
+        assertThat(a.maxBytes).isEqualTo(1048576L);
+        assertThat(a.host).isEqualTo("setter:a.example.com");
+        assertThat(a.ignored).isNull();
+
+        Tenant b = ConfigBinder.bind(properties(), "tenant.b", Tenant.class);
+        assertThat(b.name).isEqualTo("B");
+        assertThat(b.connectTimeout).isEqualTo(30);
+        assertThat(b.enabled).isNull();
+    }
+
+    @Test
+    public void thatExactNamesTakePrecedence() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("connect.timeout", "1");
+        map.put("connectTimeout", "2");
+        map.put("connect-timeout", "3");
+        assertThat(ConfigBinder.bind(map, Tenant.class).connectTimeout).isEqualTo(2);
+    }
+
+    @Test
+    public void thatInvalidValuesNameTheProperty() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("connect_timeout", "soon");
+        assertThatThrownBy(() -> ConfigBinder.bind(map, Tenant.class))
+                .hasMessageContaining("connect_timeout")
+                .hasMessageContaining("connectTimeout");
+    }
+
+    private static class PrivateWithSetter {
+        String name;
+
+        public void setName(String name) {
+            this.name = "setter:" + name;
+        }
+    }
+
+    @Test
+    public void thatNonPublicClassesAreBoundThroughSetters() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("name", "A");
+        assertThat(ConfigBinder.bind(map, PrivateWithSetter.class).name).isEqualTo("setter:A");
+    }
+
+    public static class Unsupported {
+        Map<String, String> values;
+    }
+
+    @Test
+    public void thatUnsupportedTypesAreRejected() {
+        assertThatThrownBy(() -> ConfigBinder.bind(new LinkedHashMap<>(), Unsupported.class))
+                .hasMessageContaining("java.util.Map");
+    }
+
+    @Test
+    public void thatRecordsAreBoundThroughCanonicalConstructor() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeTrue(compiler != null && hasRecords());
+        Path directory = Files.createTempDirectory("config-binder");
+        Path source = directory.resolve("TenantRecord.java");
+        Files.write(source, "public record TenantRecord(String name, int connectTimeout, boolean enabled) {}".getBytes(StandardCharsets.UTF_8));
+        int result = compiler.run(null, null, new ByteArrayOutputStream(), "-d", directory.toString(), source.toString());
+        assertThat(result).isZero();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()})) {
+            Class<?> type = classLoader.loadClass("TenantRecord");
+            Object tenant = properties().bind("tenant.a", type);
+            assertThat(tenant.toString()).isEqualTo("TenantRecord[name=A, connectTimeout=5, enabled=true]");
+            Object defaults = properties().bind("tenant.b", type);
+            assertThat(defaults.toString()).isEqualTo("TenantRecord[name=B, connectTimeout=0, enabled=false]");
+        }
+    }
+
+    private static boolean hasRecords() {
+        try {
+            Class.class.getMethod("isRecord");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package no.cantara.config;
 
 import org.junit.Test;
 
+import java.util.Random;
+
 import static no.cantara.config.EnvironmentVariableEscaping.escape;
 import static no.cantara.config.EnvironmentVariableEscaping.unescape;
 import static org.junit.Assert.assertEquals;
@@ -24,6 +26,42 @@ public class EnvironmentVariableEscapingTest {
         assertEscapeAndUnescape("level1-__-_--level2", "LEVEL1_d__u__u__d__u__d__d_LEVEL2");
     }
 
+    @Test
+    public void thatEscapingIsEquivalentToRegexReplacement() {
+        char[] alphabet = {'_', '_', 'u', 'U', 'd', 'D', '.', '-', 'a', 'Z', '1', '\u00df', '\u0130'};
+        Random random = new Random(20201018);
+        for (int i = 0; i < 200_000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String input = new String(chars);
+            assertEquals(input, regexUnescape(input), unescape(input));
+            assertEquals(input, regexEscape(input), escape(input));
+        }
+    }
+
+    /*
+     * The original regex based implementations.
+     */
+    private static String regexUnescape(String envVarKey) {
+        String propKey = envVarKey;
+        propKey = propKey.replaceAll("_d_", "-");
+        propKey = propKey.replaceAll("(?<!_u)_(?!u_)", ".");
+        propKey = propKey.replaceAll("_u_", "_");
+        propKey = propKey.toLowerCase();
+        return propKey;
+    }
+
+    private static String regexEscape(String propKey) {
+        String envVarKey = propKey;
+        envVarKey = envVarKey.toUpperCase();
+        envVarKey = envVarKey.replaceAll("[_]", "_u_");
+        envVarKey = envVarKey.replaceAll("[.]", "_");
+        envVarKey = envVarKey.replaceAll("[-]", "_d_");
+        return envVarKey;
+    }
+
     private void assertEscapeAndUnescape(String propKey, String envKey) {
         assertEquals(envKey, escape(propKey));
         assertEquals(propKey, unescape(envKey));
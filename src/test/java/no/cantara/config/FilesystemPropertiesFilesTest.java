@@ -0,0 +1,106 @@
+package no.cantara.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilesystemPropertiesFilesTest {
+
+    Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("property-config-glob");
+        write("conf.d/10-base.properties", "a=base\nb=base\nc=base\n");
+        write("conf.d/20-override.properties", "b=override\nc=override\n");
+        write("conf.d/30-last.properties", "c=last\n");
+        write("conf.d/ignored.txt", "a=ignored\n");
+        write("conf.d/nested/40-nested.properties", "nested=value\n");
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = directory.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String glob(String pattern) {
+        return directory.toString().replace('\\', '/') + "/" + pattern;
+    }
+
+    @Test
+    public void thatMatchingFilesAreMergedInPathOrder() {
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .property("a", "builder")
+                .filesystemPropertiesFiles(glob("conf.d/*.properties"))
+                .build();
+        assertEquals("base", properties.get("a"));
+        assertEquals("override", properties.get("b"));
+        assertEquals("last", properties.get("c"));
+        assertNull(properties.get("nested"));
+    }
+
+    @Test
+    public void thatSourcesReferToEachFile() {
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .filesystemPropertiesFiles(glob("conf.d/*.properties"))
+                .build();
+        List<ApplicationProperties.Source> sources = properties.sourcesOf("c");
+        assertEquals(3, sources.size());
+        assertTrue(sources.get(0).description().contains("30-last.properties"));
+        assertTrue(sources.get(1).description().contains("20-override.properties"));
+        assertTrue(sources.get(2).description().contains("10-base.properties"));
+    }
+
+    @Test
+    public void thatDoubleStarMatchesSubDirectories() {
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .filesystemPropertiesFiles(glob("conf.d/**.properties"))
+                .build();
+        assertEquals("value", properties.get("nested"));
+        assertEquals("last", properties.get("c"));
+    }
+
+    @Test
+    public void thatMissingDirectoryMatchesNothing() {
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .property("a", "builder")
+                .filesystemPropertiesFiles(glob("missing.d/*.properties"))
+                .build();
+        assertEquals("builder", properties.get("a"));
+    }
+
+    @Test
+    public void thatReloadPicksUpNewFiles() throws IOException {
+        try (ReloadableApplicationProperties properties = ApplicationProperties.builder()
+                .filesystemPropertiesFiles(glob("conf.d/*.properties"))
+                .buildReloadable(Duration.ofHours(1))) {
+            assertFalse(properties.reload());
+            write("conf.d/25-added.properties", "b=added\nc=added\n");
+            assertTrue(properties.reload());
+            assertEquals("added", properties.get("b"));
+            assertEquals("last", properties.get("c"));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package no.cantara.config;
+
+import no.cantara.config.testsupport.ApplicationPropertiesTestHelper;
+import no.cantara.config.testsupport.MutableDelegatingApplicationProperties;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyKeyTest {
+
+    final ApplicationProperties instance = ApplicationProperties.builder()
+            .values()
+            .put("server.host", "localhost")
+            .put("server.port", 8080)
+            .put("server.tls", true)
+            .end()
+            .build();
+
+    @Test
+    public void thatKeysReadSameValuesAsNames() {
+        assertKeys(instance);
+    }
+
+    @Test
+    public void thatNameBasedKeysReadThroughDelegate() {
+        MutableDelegatingApplicationProperties delegating = ApplicationPropertiesTestHelper.getInstance();
+        delegating.setDelegate(instance);
+        try {
+            assertKeys(delegating);
+        } finally {
+            delegating.setDelegate(null);
+        }
+    }
+
+    @Test
+    public void thatMissingKeysBehaveLikeMissingNames() {
+        PropertyKey<String> host = instance.key("missing");
+        assertFalse(host.isPresent());
+        assertNull(host.get());
+        assertEquals("default", host.get("default"));
+        IntKey port = instance.intKey("missing");
+        assertNull(port.get());
+        assertEquals(42, port.getInt(42));
+        BooleanKey tls = instance.booleanKey("missing");
+        assertFalse(tls.getBoolean());
+        assertTrue(tls.getBoolean(true));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void thatMissingIntKeyWithoutDefaultFailsLikeAsInt() {
+        instance.intKey("missing").getInt();
+    }
+
+    private void assertKeys(ApplicationProperties properties) {
+        PropertyKey<String> host = properties.key("server.host");
+        IntKey port = properties.intKey("server.port");
+        BooleanKey tls = properties.booleanKey("server.tls");
+        for (int i = 0; i < 3; i++) {
+            assertEquals("server.host", host.name());
+            assertTrue(host.isPresent());
+            assertEquals("localhost", host.get());
+            assertEquals(8080, port.getInt());
+            assertEquals(8080, port.getInt(1));
+            assertEquals(Integer.valueOf(8080), port.get());
+            assertTrue(tls.getBoolean());
+            assertEquals(Boolean.TRUE, tls.get());
+        }
+    }
+}
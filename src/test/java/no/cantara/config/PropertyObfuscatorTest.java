@@ -0,0 +1,85 @@
+package no.cantara.config;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyObfuscatorTest {
+
+    @Test
+    public void thatOverlappingKeywordsMatchLikeContains() {
+        List<String> keywords = Arrays.asList("he", "she", "his", "hers", "aab", "ab", "pass", "password", "wordy");
+        PropertyObfuscator obfuscator = PropertyObfuscator.of(keywords, Collections.emptyList());
+        List<String> names = Arrays.asList("", "h", "ushers", "hi", "hix", "aaab", "a.a.b", "pas.sword", "passwor",
+                "my.password", "swordy", "wordsy", "høhers", "SHE", "x");
+        for (String name : names) {
+            boolean expected = keywords.stream().anyMatch(name::contains);
+            assertThat(obfuscator.isSecret(name)).as(name).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void thatPatternsAndKeywordsAreCombined() {
+        PropertyObfuscator obfuscator = PropertyObfuscator.defaults()
+                .withKeywords("credential")
+                .withPatterns(Pattern.compile("\\.key$"), Pattern.compile("^API", Pattern.CASE_INSENSITIVE));
+        assertThat(obfuscator.isSecret("db.password")).isTrue();
+        assertThat(obfuscator.isSecret("aws.credentials")).isTrue();
+        assertThat(obfuscator.isSecret("signing.key")).isTrue();
+        assertThat(obfuscator.isSecret("signing.keystore")).isFalse();
+        assertThat(obfuscator.isSecret("api.url")).isTrue();
+        assertThat(obfuscator.isSecret("base.api")).isFalse();
+        assertThat(PropertyObfuscator.defaults().isSecret("signing.key")).isFalse();
+    }
+
+    @Test
+    public void thatPatternsWithGroupsAreMatchedSeparately() {
+        PropertyObfuscator backReferences = PropertyObfuscator.of(Collections.emptyList(), Arrays.asList(
+                Pattern.compile("^(\\w)\\1\\."), Pattern.compile("\\.(\\w)\\1$")));
+        assertThat(backReferences.isSecret("aa.key")).isTrue();
+        assertThat(backReferences.isSecret("key.bb")).isTrue();
+        assertThat(backReferences.isSecret("ab.key")).isFalse();
+        assertThat(backReferences.isSecret("aa.bc")).isTrue();
+        assertThat(backReferences.isSecret("ab.cc")).isTrue();
+        assertThat(backReferences.isSecret("ab.cd")).isFalse();
+
+        PropertyObfuscator namedGroups = PropertyObfuscator.of(Collections.emptyList(), Arrays.asList(
+                Pattern.compile("(?<x>api)\\.key"), Pattern.compile("(?<x>private)\\.key")));
+        assertThat(namedGroups.isSecret("service.private.key")).isTrue();
+        assertThat(namedGroups.isSecret("service.api.key")).isTrue();
+        assertThat(namedGroups.isSecret("service.public.key")).isFalse();
+    }
+
+    @Test
+    public void thatObfuscatedViewKeepsOrder() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("b.url", "an-url");
+        properties.put("a.password", "youshouldnotseeme");
+        properties.put("c.token", "short");
+        properties.put("d.secret", null);
+        PropertyObfuscator obfuscator = PropertyObfuscator.defaults();
+        assertThat(obfuscator.toString(properties)).isEqualTo("{b.url=an-url, a.password=yo******, c.token=******, d.secret=null}");
+        assertThat(obfuscator.obfuscatedCopy(properties).toString()).isEqualTo(obfuscator.toString(properties));
+    }
+
+    @Test
+    public void thatBuilderObfuscatorIsUsedForLogging() {
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .obfuscator(PropertyObfuscator.defaults().withKeywords("apikey"))
+                .property("service.apikey", "abcdefghijklmnop")
+                .property("service.url", "an-url")
+                .build();
+        assertThat(properties.logObfuscatedProperties())
+                .doesNotContain("abcdefghijklmnop")
+                .contains("service.apikey=ab******")
+                .contains("service.url=an-url")
+                .isSameAs(properties.logObfuscatedProperties());
+    }
+}
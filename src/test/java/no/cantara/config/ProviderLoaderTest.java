@@ -3,11 +3,20 @@ package no.cantara.config;
 import no.cantara.config.test.animal.Animal;
 import no.cantara.config.test.animal.AnimalFactory;
 import no.cantara.config.test.duck.Duck;
+import no.cantara.config.test.lazy.LazyAnimal;
+import no.cantara.config.test.lazy.LazyAnimalFactory;
 import no.cantara.config.test.tiger.Tiger;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class ProviderLoaderTest {
 
@@ -55,4 +64,60 @@ public class ProviderLoaderTest {
         assertEquals(Duck.class, animal3.getClass());
         assertEquals("Quack quack quack", animal3.say());
     }
+
+    @Test
+    public void thatFactoriesAreLoadedOnceUntilInvalidated() {
+        AnimalFactory tigerFactory = ProviderLoader.factoryOf("bigT", AnimalFactory.class);
+        assertSame(tigerFactory, ProviderLoader.factoryOf("Tiger", AnimalFactory.class));
+        assertSame(tigerFactory, ProviderLoader.factoryOf("TigerFactory", AnimalFactory.class));
+        assertSame(tigerFactory, ProviderLoader.factoryOf("no.cantara.config.test.tiger.TigerFactory", AnimalFactory.class));
+        assertNotSame(tigerFactory, ProviderLoader.factoryOf("thaD", AnimalFactory.class));
+
+        ProviderLoader.invalidate(AnimalFactory.class);
+        AnimalFactory reloaded = ProviderLoader.factoryOf("bigT", AnimalFactory.class);
+        assertNotSame(tigerFactory, reloaded);
+        assertEquals(tigerFactory.getClass(), reloaded.getClass());
+    }
+
+    @Test
+    public void thatContextClassLoadersAreNotRetained() throws InterruptedException {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        // defines none of the factories, so only the weak key references it
+        ClassLoader contextClassLoader = new URLClassLoader(new URL[0], original);
+        WeakReference<ClassLoader> reference = new WeakReference<>(contextClassLoader);
+        thread.setContextClassLoader(contextClassLoader);
+        try {
+            ProviderLoader.factoryOf("bigT", AnimalFactory.class);
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+        contextClassLoader = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void thatUnknownProviderFails() {
+        ProviderLoader.factoryOf("unicorn", AnimalFactory.class);
+    }
+
+    @Test
+    public void thatAnnotatedFactoriesAreOnlyInitializedWhenSelected() {
+        ProviderLoader.invalidate(AnimalFactory.class);
+        ProviderLoader.factoryOf("bigT", AnimalFactory.class);
+        ProviderLoader.factoryOf("Duck", AnimalFactory.class);
+        assertEquals(0, LazyAnimalFactory.Initializations.classes.get());
+        assertEquals(0, LazyAnimalFactory.Initializations.instances.get());
+
+        Animal animal = ProviderLoader.configure(ApplicationProperties.builder().build(), "sleepy", AnimalFactory.class);
+        assertEquals(LazyAnimal.class, animal.getClass());
+        ProviderLoader.factoryOf("LazyAnimal", AnimalFactory.class);
+        ProviderLoader.factoryOf("no.cantara.config.test.lazy.LazyAnimalFactory", AnimalFactory.class);
+        assertEquals(1, LazyAnimalFactory.Initializations.classes.get());
+        assertEquals(1, LazyAnimalFactory.Initializations.instances.get());
+    }
 }
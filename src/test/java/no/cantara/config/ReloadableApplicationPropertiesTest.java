@@ -0,0 +1,142 @@
+package no.cantara.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReloadableApplicationPropertiesTest {
+
+    Path directory;
+    Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("property-config-reload");
+        file = directory.resolve("override.properties");
+        write("base.url=file-value\n");
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void write(String content) throws IOException {
+        FileTime previous = Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        if (previous != null) {
+            // make sure the change is visible even on file-systems with coarse timestamps
+            Files.setLastModifiedTime(file, FileTime.fromMillis(previous.toMillis() + 2000));
+        }
+    }
+
+    public static class ExpectedProperties {
+        public static final String BASE_URL = "base.url";
+    }
+
+    @Test
+    public void thatReloadPublishesNewSnapshot() throws IOException {
+        try (ReloadableApplicationProperties properties = ApplicationProperties.builder()
+                .property("base.url", "base-value")
+                .property("other", "other-value")
+                .filesystemPropertiesFile(file.toString())
+                .buildReloadable(Duration.ofHours(1))) {
+            ApplicationProperties first = properties.snapshot();
+            assertEquals("file-value", properties.get("base.url"));
+            assertFalse(properties.reload());
+            assertSame(first, properties.snapshot());
+
+            write("base.url=changed-value\n");
+            assertTrue(properties.reload());
+            assertEquals("changed-value", properties.get("base.url"));
+            assertEquals("other-value", properties.get("other"));
+            assertEquals("file-value", first.get("base.url"));
+            assertNotSame(first, properties.snapshot());
+        }
+    }
+
+    @Test
+    public void thatFileChangesAreWatched() throws Exception {
+        try (ReloadableApplicationProperties properties = ApplicationProperties.builder()
+                .property("base.url", "base-value")
+                .filesystemPropertiesFile(file.toString())
+                .buildReloadable(Duration.ofMillis(50))) {
+            IntKey port = properties.intKey("port");
+            write("base.url=watched-value\nport=8080\n");
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (!"watched-value".equals(properties.get("base.url")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("watched-value", properties.get("base.url"));
+            assertEquals(8080, port.getInt());
+        }
+    }
+
+    @Test
+    public void thatListenersReceiveChangesOfPublishedSnapshots() throws Exception {
+        write("base.url=file-value\nserver.host=localhost\nserver.port=8080\n");
+        try (ReloadableApplicationProperties properties = ApplicationProperties.builder()
+                .property("base.url", "base-value")
+                .filesystemPropertiesFile(file.toString())
+                .buildReloadable(Duration.ofHours(1))) {
+            BlockingQueue<PropertyChanges> all = new LinkedBlockingQueue<>();
+            BlockingQueue<PropertyChanges> server = new LinkedBlockingQueue<>();
+            properties.addChangeListener(all::add);
+            properties.addChangeListener("server", server::add);
+
+            write("base.url=file-value\nserver.port=8081\nserver.timeout=5\n");
+            assertTrue(properties.reload());
+
+            PropertyChanges changes = all.poll(10, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList(
+                    new PropertyChanges.Change("server.host", "localhost", null, PropertyChanges.Kind.REMOVED),
+                    new PropertyChanges.Change("server.port", "8080", "8081", PropertyChanges.Kind.CHANGED),
+                    new PropertyChanges.Change("server.timeout", null, "5", PropertyChanges.Kind.ADDED)
+            ), changes.changes());
+            PropertyChanges serverChanges = server.poll(10, TimeUnit.SECONDS);
+            assertEquals(Collections.singleton("host"), serverChanges.removed());
+            assertEquals(Collections.singleton("port"), serverChanges.changed());
+            assertEquals(Collections.singleton("timeout"), serverChanges.added());
+
+            write("base.url=other-value\nserver.port=8081\nserver.timeout=5\n");
+            assertTrue(properties.reload());
+            assertEquals(Collections.singleton("base.url"), all.poll(10, TimeUnit.SECONDS).changed());
+            assertNull(server.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void thatInvalidConfigurationIsRejected() throws IOException {
+        try (ReloadableApplicationProperties properties = ApplicationProperties.builder()
+                .expectedProperties(ExpectedProperties.class)
+                .filesystemPropertiesFile(file.toString())
+                .buildReloadable(Duration.ofHours(1))) {
+            write("another.key=value\n");
+            assertFalse(properties.reload());
+            assertEquals("file-value", properties.get("base.url"));
+        }
+    }
+}
@@ -2,7 +2,13 @@ package no.cantara.config;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
 
 import static org.junit.Assert.assertEquals;
 
@@ -57,4 +63,69 @@ public class SubMapTest {
         assertEquals(123, l2.asInt("l3.b", 1234));
         assertEquals("C", l2.get("c"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void thatSubMapMatchesSortedMapSemantics() {
+        Random random = new Random(7);
+        String[] segments = {"a", "b", "ab", "a-b", "a_b", "A", "1", ""};
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder key = new StringBuilder();
+            int depth = 1 + random.nextInt(4);
+            for (int d = 0; d < depth; d++) {
+                if (d > 0) {
+                    key.append('.');
+                }
+                key.append(segments[random.nextInt(segments.length)]);
+            }
+            properties.put(key.toString(), "v" + i);
+        }
+        ApplicationProperties instance = ApplicationProperties.builder().map(properties).build();
+        NavigableMap<String, String> sorted = new TreeMap<>(properties);
+        for (String prefix : new String[]{"a", "a.", "a.b", "a.b.", "ab", "A", "", ".", "a..", "x", "a.b.ab.a"}) {
+            Map<String, String> expected = new LinkedHashMap<>();
+            String effectivePrefix = prefix.endsWith(".") ? prefix : prefix + ".";
+            for (Map.Entry<String, String> entry : sorted.subMap(effectivePrefix, true, effectivePrefix + Character.MAX_VALUE, true).entrySet()) {
+                expected.put(entry.getKey().substring(effectivePrefix.length()), entry.getValue());
+            }
+            Map<String, String> subMap = instance.subMap(prefix);
+            assertEquals(prefix, expected, subMap);
+            assertEquals(prefix, new ArrayList<>(expected.keySet()), new ArrayList<>(subMap.keySet()));
+            for (String key : properties.keySet()) {
+                assertEquals(expected.get(key), subMap.get(key));
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void thatSubMapIsImmutable() {
+        ApplicationProperties instance = ApplicationProperties.builder()
+                .property("level1.a", "A")
+                .build();
+        instance.subMap("level1").put("b", "B");
+    }
+
+    @Test
+    public void thatSubTreeSharesParentSources() {
+        ApplicationProperties instance = ApplicationProperties.builder()
+                .property("tenant.a.pool.size", "8")
+                .property("tenant.a.pool.size", "16")
+                .property("tenant.b.pool.size", "4")
+                .build();
+
+        ApplicationProperties tenant = instance.subTree("tenant");
+        ApplicationProperties a = tenant.subTree("a.");
+        assertEquals(16, a.asInt("pool.size"));
+        assertEquals(16, a.intKey("pool.size").getInt());
+        assertEquals(1, a.map().size());
+        assertEquals("4", tenant.subMap("b").get("pool.size"));
+        assertEquals(instance.subTree("tenant.a"), a);
+
+        List<ApplicationProperties.Source> sources = a.sourcesOf("pool.size");
+        assertEquals(2, sources.size());
+        assertEquals("tenant.a.pool.size", sources.get(0).propertyName());
+        assertEquals("16", sources.get(0).propertyValue());
+        assertEquals("8", sources.get(1).propertyValue());
+        assertEquals(instance.sourcesOf("tenant.a.pool.size").get(0).description(), sources.get(0).description());
+    }
+}
@@ -2,6 +2,9 @@ package no.cantara.config;
 
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class SystemPropertiesTest {
@@ -35,4 +38,72 @@ public class SystemPropertiesTest {
                 .build();
         assertEquals("http-value", applicationProperties.get("base.url"));
     }
+
+    @Test
+    public void thatSystemPropertiesOnlyOverridePropertiesDefinedBefore() {
+        System.setProperty("junit-test.defined.before", "from-system-properties");
+        System.setProperty("junit-test.defined.after", "from-system-properties");
+        ApplicationProperties applicationProperties = ApplicationProperties.builder()
+                .property("defined.before", "base-value")
+                .enableSystemProperties("junit-test.")
+                .property("defined.after", "base-value")
+                .enableSystemProperties("junit-test.unused.")
+                .build();
+        assertEquals("from-system-properties", applicationProperties.get("defined.before"));
+        assertEquals("base-value", applicationProperties.get("defined.after"));
+        assertEquals(1, applicationProperties.sourcesOf("defined.after").size());
+    }
+
+    @Test
+    public void thatSourcesAreCapturedWhenBuilt() {
+        System.setProperty("junit-test.captured", "from-system-properties");
+        ApplicationProperties applicationProperties = ApplicationProperties.builder()
+                .property("captured", "base-value")
+                .enableSystemProperties("junit-test.")
+                .build();
+        System.setProperty("junit-test.captured", "changed-later");
+        List<ApplicationProperties.Source> sources = applicationProperties.sourcesOf("captured");
+        assertEquals(2, sources.size());
+        assertEquals("from-system-properties", sources.get(0).propertyValue());
+        assertEquals("System-properties 'junit-test.*'", sources.get(0).description());
+        assertEquals("base-value", sources.get(1).propertyValue());
+        assertEquals(Collections.emptyList(), applicationProperties.sourcesOf("not.defined"));
+    }
+
+    @Test
+    public void thatSystemPropertiesCanDefineExpectedProperties() {
+        System.setProperty("junit-test.expected.only", "from-system-properties");
+        ApplicationProperties applicationProperties = ApplicationProperties.builder()
+                .property("base.url", "base-value")
+                .expectedProperties(ExpectedProperties.class)
+                .enableSystemProperties("junit-test.")
+                .build();
+        assertEquals("from-system-properties", applicationProperties.get("expected.only"));
+    }
+
+    public static class ExpectedProperties {
+        public static final String BASE_URL = "base.url";
+        public static final String EXPECTED_ONLY = "expected.only";
+    }
+
+    @Test
+    public void thatSystemPropertiesSnapshotIsOnlyChangedByRefresh() {
+        System.setProperty("junit-snapshot.base.url", "first-value");
+        RefreshableApplicationProperties applicationProperties = (RefreshableApplicationProperties) ApplicationProperties.builder()
+                .property("base.url", "base-value")
+                .property("other.url", "base-value")
+                .enableSystemPropertiesSnapshot("junit-snapshot.")
+                .build();
+        System.setProperty("junit-snapshot.base.url", "second-value");
+        System.setProperty("junit-snapshot.other.url", "second-value");
+        assertEquals("first-value", applicationProperties.get("base.url"));
+        assertEquals("first-value", applicationProperties.sourcesOf("base.url").get(0).propertyValue());
+        assertEquals(1, applicationProperties.sourcesOf("other.url").size());
+
+        RefreshableApplicationProperties refreshed = applicationProperties.refreshSystemProperties();
+        assertEquals("second-value", refreshed.get("base.url"));
+        assertEquals("second-value", refreshed.get("other.url"));
+        assertEquals("second-value", refreshed.sourcesOf("other.url").get(0).propertyValue());
+        assertEquals("first-value", applicationProperties.get("base.url"));
+    }
 }
@@ -0,0 +1,73 @@
+package no.cantara.config;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TypedValuesTest {
+
+    final ApplicationProperties instance = ApplicationProperties.builder()
+            .values()
+            .put("pool.size", 16)
+            .put("timeout.millis", 9_000_000_000L)
+            .put("threshold", 0.75)
+            .put("enabled", true)
+            .put("not.a.number", "sixteen")
+            .end()
+            .build();
+
+    @Test
+    public void thatRepeatedTypedReadsReturnSameValue() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(16, instance.asInt("pool.size"));
+            assertEquals(16, instance.asInt("pool.size", 1));
+            assertEquals(16L, instance.asLong("pool.size"));
+            assertEquals(9_000_000_000L, instance.asLong("timeout.millis"));
+            assertEquals(0.75, instance.asDouble("threshold"), 0);
+            assertEquals(16.0, instance.asDouble("pool.size"), 0);
+            assertTrue(instance.asBoolean("enabled"));
+            assertFalse(instance.asBoolean("pool.size"));
+        }
+    }
+
+    @Test
+    public void thatDefaultsAreUsedForMissingProperties() {
+        assertEquals(42, instance.asInt("missing", 42));
+        assertEquals(42L, instance.asLong("missing", 42L));
+        assertEquals(4.2, instance.asDouble("missing", 4.2), 0);
+        assertTrue(instance.asBoolean("missing", true));
+        assertFalse(instance.asBoolean("missing"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void thatMissingPropertyWithoutDefaultFailsAsBefore() {
+        instance.asInt("missing");
+    }
+
+    @Test
+    public void thatParseFailuresAreCached() {
+        NumberFormatException first = parseFailure();
+        NumberFormatException second = parseFailure();
+        assertSame(first, second);
+        assertEquals(16, instance.asInt("pool.size")); // other slots unaffected
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void thatLongOverflowFailsIntParsing() {
+        instance.asInt("timeout.millis");
+    }
+
+    private NumberFormatException parseFailure() {
+        try {
+            instance.asInt("not.a.number", 1);
+            fail("Expected NumberFormatException");
+            return null;
+        } catch (NumberFormatException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package no.cantara.config.store;
+
+import no.cantara.config.SourceConfigurationLocationException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EnvironmentStoreTest {
+
+    @Test
+    public void thatStoreIsIndexedFromSnapshotOfEnvironment() {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("APP_DATABASE_URL", "jdbc:test");
+        environment.put("APP_MAX_u_CONNECTIONS", "10");
+        environment.put("APP_iamcamelcased", "camel");
+        environment.put("APP_NOT_A_BASE_KEY", "ignored");
+        environment.put("OTHER_DATABASE_URL", "other");
+        Set<String> baseKeys = new LinkedHashSet<>(Arrays.asList("database.url", "max_connections", "iAmCamelCased", "missing"));
+
+        EnvironmentStore store = new EnvironmentStore(environment, baseKeys, new SourceConfigurationLocationException(0), "APP_", true);
+        environment.put("APP_MISSING", "too late");
+
+        assertEquals("jdbc:test", store.get("database.url"));
+        assertEquals("10", store.get("max_connections"));
+        assertEquals("camel", store.get("iAmCamelCased")); // resolved with casing auto-detection
+        assertNull(store.get("missing"));
+        assertNull(store.get("not.a.base.key"));
+
+        Map<String, String> overrides = new LinkedHashMap<>();
+        store.forEach(overrides::put);
+        Map<String, String> expected = new HashMap<>();
+        expected.put("database.url", "jdbc:test");
+        expected.put("max_connections", "10");
+        expected.put("iAmCamelCased", "camel");
+        assertEquals(expected, overrides);
+    }
+
+    @Test
+    public void thatGetAgreesWithForEachWithoutEscaping() {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("APP_mixedCase", "exact");
+        environment.put("APP_lowercased", "aliased");
+        Set<String> baseKeys = new LinkedHashSet<>(Arrays.asList("mixedCase", "lowerCased"));
+
+        EnvironmentStore store = new EnvironmentStore(environment, baseKeys, new SourceConfigurationLocationException(0), "APP_", false);
+
+        Map<String, String> overrides = new LinkedHashMap<>();
+        store.forEach(overrides::put);
+        assertEquals(2, overrides.size());
+        for (Map.Entry<String, String> entry : overrides.entrySet()) {
+            assertEquals(entry.getValue(), store.get(entry.getKey()));
+        }
+        assertEquals("exact", store.get("mixedCase"));
+        assertEquals("aliased", store.get("lowerCased"));
+    }
+}
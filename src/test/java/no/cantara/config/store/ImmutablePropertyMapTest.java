@@ -0,0 +1,71 @@
+package no.cantara.config.store;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImmutablePropertyMapTest {
+
+    @Test
+    public void thatMapBehavesLikeLinkedHashMap() {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 3, 7, 100, 10_000}) {
+            Map<String, String> expected = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                expected.put("key." + random.nextInt(size * 2 + 1), i % 17 == 0 ? null : "value" + i);
+            }
+            ImmutablePropertyMap map = new ImmutablePropertyMap(expected);
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+            assertEquals(expected.size(), map.size());
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+            assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+            assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+            for (int i = 0; i < size * 2 + 1; i++) {
+                String key = "key." + i;
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+                assertEquals(expected.get(key), map.get(key));
+                assertEquals(expected.getOrDefault(key, "default"), map.getOrDefault(key, "default"));
+            }
+            assertFalse(map.containsKey("missing"));
+            assertNull(map.get(42));
+        }
+    }
+
+    @Test
+    public void thatCollidingHashesAreResolved() {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("Aa", "1");
+        expected.put("BB", "2"); // same String.hashCode() as "Aa"
+        expected.put("AaAa", "3");
+        expected.put("BBBB", "4");
+        ImmutablePropertyMap map = new ImmutablePropertyMap(expected);
+        assertEquals("1", map.get("Aa"));
+        assertEquals("2", map.get("BB"));
+        assertEquals("3", map.get("AaAa"));
+        assertEquals("4", map.get("BBBB"));
+        assertTrue(map.indexOf("AaBB") < 0);
+        assertEquals(1, map.indexOf("BB"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void thatPutIsNotSupported() {
+        new ImmutablePropertyMap(new LinkedHashMap<>()).put("a", "b");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void thatRemoveIsNotSupported() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "b");
+        new ImmutablePropertyMap(map).entrySet().iterator().remove();
+    }
+}
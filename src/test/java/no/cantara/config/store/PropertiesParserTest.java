@@ -0,0 +1,171 @@
+package no.cantara.config.store;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Conformance of {@link PropertiesParser} with {@link Properties#load(java.io.Reader)} reading UTF-8.
+ */
+public class PropertiesParserTest {
+
+    @Test
+    public void thatSyntaxExamplesConform() throws IOException {
+        String[] examples = {
+                "",
+                "key=value",
+                "key = value\n",
+                "key:value\r\nother : value",
+                "key value\rother\tvalue\fthird",
+                "   indented=value   \n\t\f\n",
+                "# comment\n! comment\nkey=value # not a comment\n  # indented comment",
+                "#comment with continuation \\\nkey=value",
+                "key=multi \\\n     line \\\r\n\tvalue\\\r  end",
+                "key=ends with backslash\\",
+                "key=ends with two backslashes\\\\",
+                "key=continued into empty line\\\n\nnext=value",
+                "\\\n#after empty continuation=value",
+                "escaped\\ key\\=with\\:separators=value\\ with\\tescapes\\n\\r\\f\\\\\\x",
+                "unicode=\\u00e6\\u00F8\\u00e5 and \\uD83D\\uDE00",
+                "key",
+                "key=",
+                "=value",
+                ":value",
+                "key==value",
+                "key =:value",
+                "key  value=with=equals",
+                "duplicate=first\nduplicate=second",
+                "æøå=blåbærsyltetøy\n€=😀",
+        };
+        for (String example : examples) {
+            assertConforms(example.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void thatMalformedUnicodeEscapesFailLikeProperties() throws IOException {
+        for (String example : new String[]{"key=\\u12", "key=\\u12x4", "key=\\uGGGG", "key\\u=value", "key=\\u123"}) {
+            assertConforms(example.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void thatMalformedUtf8IsReplacedLikeInputStreamReader() throws IOException {
+        int[][] examples = {
+                {0x80}, {0xbf}, {0xc0, 0x80}, {0xc1, 0xbf}, {0xc2}, {0xc2, 0x41}, {0xdf, 0xbf},
+                {0xe0, 0x80, 0x80}, {0xe0, 0xa0}, {0xe0, 0xa0, 0x41}, {0xe0, 0x9f, 0xbf}, {0xed, 0xa0, 0x80}, {0xed, 0xa0},
+                {0xef, 0xbf, 0xbf}, {0xef, 0xbf}, {0xe1, 0x41},
+                {0xf0, 0x80, 0x80, 0x80}, {0xf0, 0x90, 0x80}, {0xf0, 0x90}, {0xf0, 0x90, 0x41, 0x41}, {0xf0, 0x90, 0x80, 0x41},
+                {0xf4, 0x8f, 0xbf, 0xbf}, {0xf4, 0x90, 0x80, 0x80}, {0xf5, 0x80, 0x80, 0x80}, {0xf8, 0x88, 0x80, 0x80, 0x80},
+                {0xff}, {0xfe, 0xff},
+        };
+        for (int[] example : examples) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write("key=".getBytes(StandardCharsets.UTF_8));
+            for (int b : example) {
+                bytes.write(b);
+            }
+            byte[] atEnd = bytes.toByteArray();
+            assertConforms(atEnd);
+            bytes.write("tail\nnext=value".getBytes(StandardCharsets.UTF_8));
+            assertConforms(bytes.toByteArray());
+        }
+    }
+
+    @Test
+    public void thatRandomInputConforms() throws IOException {
+        String[] fragments = {
+                "a", "b", "key", "=", ":", " ", "\t", "\f", "\\", "\\\\", "\n", "\r", "\r\n", "#", "!", "u", "0", "F",
+                "t", "n", "\\u00e6", "\\u0", "æ", "€", "😀",
+        };
+        Random random = new Random(15);
+        for (int i = 0; i < 50_000; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                if (random.nextInt(10) == 0) {
+                    bytes.write(0x80 + random.nextInt(0x80));
+                } else {
+                    bytes.write(fragments[random.nextInt(fragments.length)].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            assertConforms(bytes.toByteArray());
+        }
+        for (int i = 0; i < 20_000; i++) {
+            byte[] bytes = new byte[random.nextInt(16)];
+            random.nextBytes(bytes);
+            assertConforms(bytes);
+        }
+    }
+
+    @Test
+    public void thatLargeFilesAreMappedAndConform() throws IOException {
+        Path file = Files.createTempFile("property-config-parser", ".properties");
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() <= PropertiesParser.MAP_THRESHOLD; i++) {
+                sb.append("tenant").append(i % 10).append(".setting").append(i).append(" = value \\\n  ").append(i).append(" æøå\n");
+            }
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            Files.write(file, bytes);
+
+            Map<String, String> actual = new LinkedHashMap<>();
+            PropertiesParser.parse(file, actual::put);
+            assertEquals(load(bytes), actual);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void thatPairsArePassedInInputOrder() {
+        List<String> pairs = new ArrayList<>();
+        PropertiesParser.parse(ByteBuffer.wrap("b=1\na=2\nb=3".getBytes(StandardCharsets.UTF_8)), (key, value) -> pairs.add(key + "=" + value));
+        assertEquals(Arrays.asList("b=1", "a=2", "b=3"), pairs);
+    }
+
+    private static void assertConforms(byte[] bytes) throws IOException {
+        Object expected;
+        try {
+            expected = load(bytes);
+        } catch (IllegalArgumentException e) {
+            expected = e.getClass();
+        }
+        Object actual;
+        try {
+            Map<String, String> map = new HashMap<>();
+            PropertiesParser.parse(ByteBuffer.wrap(bytes), map::put);
+            actual = map;
+        } catch (IllegalArgumentException e) {
+            actual = e.getClass();
+        }
+        assertEquals(Arrays.toString(bytes), expected, actual);
+    }
+
+    private static Map<String, String> load(byte[] bytes) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+        Map<String, String> map = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, properties.getProperty(name));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,65 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.PropertyChanges;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class PropertyDiffTest {
+
+    @Test
+    public void thatDiffMatchesComparisonOfSubMaps() {
+        Random random = new Random(14);
+        for (int round = 0; round < 200; round++) {
+            Map<String, String> before = randomProperties(random);
+            Map<String, String> after = randomProperties(random);
+            StoreBasedApplicationProperties previous = (StoreBasedApplicationProperties) ApplicationProperties.builder().map(before).build();
+            StoreBasedApplicationProperties next = (StoreBasedApplicationProperties) ApplicationProperties.builder().map(after).build();
+
+            assertEquals(expectedChanges(before, after), PropertyDiff.between(previous, next).changes());
+            for (String prefix : new String[]{"a", "a.", "a.b", "b", "ab", "c.a"}) {
+                assertEquals(prefix, expectedChanges(previous.subMap(prefix), next.subMap(prefix)), PropertyDiff.between(previous, next, prefix).changes());
+            }
+        }
+    }
+
+    private static Map<String, String> randomProperties(Random random) {
+        String[] parts = {"a", "b", "ab", "c"};
+        Map<String, String> map = new LinkedHashMap<>();
+        int size = random.nextInt(20);
+        for (int i = 0; i < size; i++) {
+            StringBuilder key = new StringBuilder(parts[random.nextInt(parts.length)]);
+            int depth = random.nextInt(3);
+            for (int d = 0; d < depth; d++) {
+                key.append('.').append(parts[random.nextInt(parts.length)]);
+            }
+            map.put(key.toString(), String.valueOf(random.nextInt(3)));
+        }
+        return map;
+    }
+
+    private static List<PropertyChanges.Change> expectedChanges(Map<String, String> before, Map<String, String> after) {
+        TreeSet<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        List<PropertyChanges.Change> changes = new ArrayList<>();
+        for (String key : keys) {
+            if (!after.containsKey(key)) {
+                changes.add(new PropertyChanges.Change(key, before.get(key), null, PropertyChanges.Kind.REMOVED));
+            } else if (!before.containsKey(key)) {
+                changes.add(new PropertyChanges.Change(key, null, after.get(key), PropertyChanges.Kind.ADDED));
+            } else if (!Objects.equals(before.get(key), after.get(key))) {
+                changes.add(new PropertyChanges.Change(key, before.get(key), after.get(key), PropertyChanges.Kind.CHANGED));
+            }
+        }
+        return changes;
+    }
+}
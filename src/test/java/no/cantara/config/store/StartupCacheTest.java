@@ -0,0 +1,125 @@
+package no.cantara.config.store;
+
+import no.cantara.config.ApplicationProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupCacheTest {
+
+    Path directory;
+    Path file;
+    Path cache;
+
+    @Before
+    public void createFiles() throws IOException {
+        directory = Files.createTempDirectory("property-config-cache");
+        file = directory.resolve("override.properties");
+        cache = directory.resolve("cache/startup.bin");
+        Files.write(file, "base.url=file-value\nport=8080\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        System.clearProperty("startup-cache-test.port");
+        System.clearProperty("startup-cache-test.unrelated");
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private StoreBasedApplicationProperties build() {
+        return (StoreBasedApplicationProperties) ApplicationProperties.builder()
+                .startupCache(cache.toString())
+                .classpathPropertiesFile("application.properties")
+                .property("base.url", "base-value")
+                .property("timeout", "5")
+                .filesystemPropertiesFile(file.toString())
+                .enableSystemProperties("startup-cache-test.")
+                .build();
+    }
+
+    private static boolean isCached(ApplicationProperties properties, String name) {
+        List<ApplicationProperties.Source> sources = properties.sourcesOf(name);
+        return ((DebuggableSource) sources.get(0)).store instanceof CachedStore;
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void thatSystemPropertiesOfCachedPropertiesCannotBeRefreshed() {
+        build();
+        build().refreshSystemProperties();
+    }
+
+    @Test
+    public void thatUnchangedInputsAreLoadedFromCache() {
+        StoreBasedApplicationProperties built = build();
+        assertFalse(isCached(built, "base.url"));
+        assertTrue(Files.isRegularFile(cache));
+
+        StoreBasedApplicationProperties cached = build();
+        assertTrue(isCached(cached, "base.url"));
+        assertEquals(built.map(), cached.map());
+        assertEquals(built.debugAll(true), cached.debugAll(true));
+        assertEquals(8080, cached.asInt("port"));
+    }
+
+    @Test
+    public void thatChangedFilesInvalidateCache() throws IOException {
+        build();
+        Files.write(file, "base.url=changed-value\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+        StoreBasedApplicationProperties rebuilt = build();
+        assertFalse(isCached(rebuilt, "base.url"));
+        assertEquals("changed-value", rebuilt.get("base.url"));
+        assertTrue(isCached(build(), "base.url"));
+    }
+
+    @Test
+    public void thatOnlyRelevantSystemPropertiesInvalidateCache() {
+        build();
+        System.setProperty("startup-cache-test.unrelated", "value");
+        assertTrue(isCached(build(), "base.url"));
+
+        System.setProperty("startup-cache-test.port", "9090");
+        StoreBasedApplicationProperties rebuilt = build();
+        assertFalse(isCached(rebuilt, "base.url"));
+        assertEquals(9090, rebuilt.asInt("port"));
+    }
+
+    @Test
+    public void thatChangedBuilderStepsInvalidateCache() {
+        build();
+        ApplicationProperties properties = ApplicationProperties.builder()
+                .startupCache(cache.toString())
+                .property("base.url", "other-value")
+                .build();
+        assertFalse(isCached(properties, "base.url"));
+        assertEquals("other-value", properties.get("base.url"));
+    }
+
+    @Test
+    public void thatCorruptCacheIsIgnored() throws IOException {
+        build();
+        byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length / 2));
+        StoreBasedApplicationProperties rebuilt = build();
+        assertFalse(isCached(rebuilt, "base.url"));
+        assertEquals("file-value", rebuilt.get("base.url"));
+        assertTrue(isCached(build(), "base.url"));
+    }
+}
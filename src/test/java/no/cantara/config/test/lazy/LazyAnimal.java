@@ -0,0 +1,10 @@
+package no.cantara.config.test.lazy;
+
+import no.cantara.config.test.animal.Animal;
+
+public class LazyAnimal implements Animal {
+    @Override
+    public String say() {
+        return "zzz";
+    }
+}
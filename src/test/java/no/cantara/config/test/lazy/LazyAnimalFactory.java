@@ -0,0 +1,43 @@
+package no.cantara.config.test.lazy;
+
+import no.cantara.config.ApplicationProperties;
+import no.cantara.config.ProviderMetadata;
+import no.cantara.config.test.animal.AnimalFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ProviderMetadata(alias = "sleepy", providerClass = LazyAnimal.class)
+public class LazyAnimalFactory implements AnimalFactory {
+
+    /**
+     * Counts initializations of factory classes, kept outside of the factory so that reading it does not initialize
+     * the factory.
+     */
+    public static class Initializations {
+        public static final AtomicInteger classes = new AtomicInteger();
+        public static final AtomicInteger instances = new AtomicInteger();
+    }
+
+    static {
+        Initializations.classes.incrementAndGet();
+    }
+
+    public LazyAnimalFactory() {
+        Initializations.instances.incrementAndGet();
+    }
+
+    @Override
+    public Class<?> providerClass() {
+        return LazyAnimal.class;
+    }
+
+    @Override
+    public String alias() {
+        return "sleepy";
+    }
+
+    @Override
+    public LazyAnimal create(ApplicationProperties applicationProperties) {
+        return new LazyAnimal();
+    }
+}